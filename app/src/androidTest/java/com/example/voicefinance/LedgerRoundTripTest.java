@@ -0,0 +1,115 @@
+package com.example.voicefinance;
+
+import android.content.Context;
+
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.FutureTask;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Exports a ledger, imports the file into an empty database and exports
+ * that again: both files must match, so nothing is lost or rewritten on
+ * the way through.
+ */
+@RunWith(AndroidJUnit4.class)
+public class LedgerRoundTripTest {
+
+    private AppDatabase source;
+    private AppDatabase target;
+
+    @Before
+    public void createDatabases() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        source = Room.inMemoryDatabaseBuilder(context, AppDatabase.class).build();
+        target = Room.inMemoryDatabaseBuilder(context, AppDatabase.class).build();
+    }
+
+    @After
+    public void closeDatabases() throws Exception {
+        // The category and budget caches are per process: leave them to the app's database
+        onWriter(() -> {
+            Categories.invalidate();
+            Budgets.invalidate();
+            return null;
+        });
+        source.close();
+        target.close();
+    }
+
+    @Test
+    public void csvRoundTrip() throws Exception {
+        String exported = onWriter(() -> {
+            seed(source);
+            StringWriter out = new StringWriter();
+            LedgerExporter.exportCsv(source, out, null);
+            return out.toString();
+        });
+
+        String reexported = onWriter(() -> {
+            Categories.invalidate();
+            assertEquals(3, LedgerImporter.importCsv(target, new StringReader(exported), null));
+            StringWriter out = new StringWriter();
+            LedgerExporter.exportCsv(target, out, null);
+            return out.toString();
+        });
+
+        assertEquals(exported, reexported);
+    }
+
+    @Test
+    public void jsonRoundTrip() throws Exception {
+        String exported = onWriter(() -> {
+            seed(source);
+            StringWriter out = new StringWriter();
+            LedgerExporter.exportJson(source, out, null);
+            return out.toString();
+        });
+
+        String reexported = onWriter(() -> {
+            Categories.invalidate();
+            assertEquals(3, LedgerImporter.importJson(target, new StringReader(exported), null));
+            StringWriter out = new StringWriter();
+            LedgerExporter.exportJson(target, out, null);
+            return out.toString();
+        });
+
+        assertEquals(exported, reexported);
+    }
+
+    // A quoted label, an uncategorized row and an edited one
+    private static void seed(AppDatabase db) {
+        Categories.invalidate();
+
+        Transaction tea = new Transaction("tea, \"masala\"", -1_550L,
+                1_700_000_000_000L, "food", TransactionType.EXPENSE);
+        Transaction salary = new Transaction("salary", 4_500_000L,
+                1_700_000_060_000L, "", TransactionType.INCOME);
+        Transaction bus = new Transaction("bus", -4_000L,
+                1_700_000_120_000L, "transport", TransactionType.EXPENSE);
+        bus.updatedAt = 1_700_000_180_000L;
+
+        List<Transaction> rows = Arrays.asList(tea, salary, bus);
+        LedgerWriter.insertAll(db, rows);
+    }
+
+    // Writes, and the caches they fill, belong on the writer thread
+    private static <T> T onWriter(Callable<T> body) throws Exception {
+        FutureTask<T> task = new FutureTask<>(body);
+        AppDatabase.databaseWriteExecutor.execute(task);
+        return task.get();
+    }
+}
@@ -13,24 +13,54 @@ import androidx.room.migration.Migration;
 import androidx.sqlite.db.SupportSQLiteDatabase;
 import androidx.annotation.NonNull;
 
-@Database(entities = {Transaction.class, Budget.class}, version = 4)
- // Now version 4
+@Database(
+        entities = {
+                Transaction.class, Budget.class, DailyRollup.class,
+                LedgerSummary.class, TransactionFts.class,
+                Category.class, CategoryFts.class, RecurringRule.class
+        },
+        version = 13
+)
+ // Now version 13
 public abstract class AppDatabase extends RoomDatabase {
     public abstract TransactionDao transactionDao();
     public abstract BudgetDao budgetDao();
+    public abstract RollupDao rollupDao();
+    public abstract CategoryDao categoryDao();
+    public abstract RecurringDao recurringDao();
     private static volatile AppDatabase INSTANCE;
-    private static final int NUMBER_OF_THREADS = 4;
+    private static volatile StorageProfile storageProfile = StorageProfile.BALANCED;
 
-    static final ExecutorService databaseWriteExecutor =
-            Executors.newFixedThreadPool(NUMBER_OF_THREADS);
+    // SQLite has a single writer: all writes go through one ordered thread
+    static final SerialWriteExecutor databaseWriteExecutor = new SerialWriteExecutor();
+
+    // Reads (Room LiveData queries, exports, paging) run concurrently on a pool sized to the cores
+    private static final int NUMBER_OF_READ_THREADS =
+            Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    static final ExecutorService databaseReadExecutor =
+            Executors.newFixedThreadPool(NUMBER_OF_READ_THREADS);
+
+    // Must be called before the first getDatabase() to take effect
+    static void setStorageProfile(StorageProfile profile) {
+        storageProfile = profile;
+    }
+
+    static StorageProfile getStorageProfile() {
+        return storageProfile;
+    }
 
     static AppDatabase getDatabase(final Context context) {
         if (INSTANCE == null) {
             synchronized (AppDatabase.class) {
                 if (INSTANCE == null) {
+                    StorageProfile profile = storageProfile;
                     INSTANCE = Room.databaseBuilder(context.getApplicationContext(),
                                     AppDatabase.class, "transaction_database")
-                            .addMigrations(MIGRATION_2_3, MIGRATION_3_4)
+                            .setJournalMode(profile.journalMode)
+                            .addCallback(profile.callback())
+                            .setQueryExecutor(databaseReadExecutor)
+                            .addMigrations(MIGRATION_2_3, MIGRATION_3_4, MIGRATION_4_5, MIGRATION_5_6, MIGRATION_6_7, MIGRATION_7_8, MIGRATION_8_9, MIGRATION_9_10, MIGRATION_10_11, MIGRATION_11_12, MIGRATION_12_13)
                             .build();
                 }
             }
@@ -86,6 +116,352 @@ public abstract class AppDatabase extends RoomDatabase {
             );
         }
     };
+    // Index on timestamp so the history screen can range-scan a period
+    static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL(
+                    "CREATE INDEX IF NOT EXISTS `index_transactions_timestamp` " +
+                            "ON `transactions` (`timestamp`)"
+            );
+        }
+    };
+    // Materialized per-day aggregates, backfilled from existing rows
+    static final Migration MIGRATION_5_6 = new Migration(5, 6) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL(
+                    "CREATE TABLE IF NOT EXISTS `daily_rollup` (" +
+                            "`day_key` INTEGER NOT NULL," +
+                            "`category` TEXT NOT NULL," +
+                            "`sign` INTEGER NOT NULL," +
+                            "`total` REAL NOT NULL," +
+                            "`count` INTEGER NOT NULL," +
+                            "PRIMARY KEY(`day_key`, `category`, `sign`))"
+            );
+            db.execSQL(
+                    "INSERT INTO daily_rollup (day_key, category, sign, total, count) " +
+                            "SELECT " +
+                            "CAST(strftime('%Y%m%d', timestamp/1000, 'unixepoch', 'localtime') AS INTEGER), " +
+                            "IFNULL(category, ''), " +
+                            "CASE WHEN amount < 0 THEN -1 ELSE 1 END, " +
+                            "SUM(amount), " +
+                            "COUNT(*) " +
+                            "FROM transactions " +
+                            "GROUP BY 1, 2, 3"
+            );
+        }
+    };
+    // Persisted local date keys + composite index for category/month lookups
+    static final Migration MIGRATION_6_7 = new Migration(6, 7) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE transactions ADD COLUMN day_key INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("ALTER TABLE transactions ADD COLUMN month_key INTEGER NOT NULL DEFAULT 0");
+            db.execSQL("ALTER TABLE transactions ADD COLUMN year_key INTEGER NOT NULL DEFAULT 0");
 
+            db.execSQL(
+                    "UPDATE transactions SET day_key = " +
+                            "CAST(strftime('%Y%m%d', timestamp/1000, 'unixepoch', 'localtime') AS INTEGER)"
+            );
+            db.execSQL(
+                    "UPDATE transactions SET month_key = day_key / 100, year_key = day_key / 10000"
+            );
 
-}
\ No newline at end of file
+            db.execSQL(
+                    "CREATE INDEX IF NOT EXISTS `index_transactions_category_month_key` " +
+                            "ON `transactions` (`category`, `month_key`)"
+            );
+        }
+    };
+    // Single-row dashboard totals, backfilled once from existing rows
+    static final Migration MIGRATION_7_8 = new Migration(7, 8) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL(
+                    "CREATE TABLE IF NOT EXISTS `ledger_summary` (" +
+                            "`id` INTEGER NOT NULL," +
+                            "`balance` REAL NOT NULL," +
+                            "`income` REAL NOT NULL," +
+                            "`expense` REAL NOT NULL," +
+                            "`count` INTEGER NOT NULL," +
+                            "PRIMARY KEY(`id`))"
+            );
+            db.execSQL(
+                    "INSERT OR REPLACE INTO ledger_summary (id, balance, income, expense, count) " +
+                            "SELECT 1, " +
+                            "IFNULL(SUM(amount), 0), " +
+                            "IFNULL(SUM(CASE WHEN amount > 0 THEN amount END), 0), " +
+                            "IFNULL(SUM(CASE WHEN amount <= 0 THEN amount END), 0), " +
+                            "COUNT(*) " +
+                            "FROM transactions"
+            );
+        }
+    };
+    // FTS4 index over label/category; the triggers match the ones Room
+    // generates for @Fts4(contentEntity = Transaction.class) on a fresh install
+    static final Migration MIGRATION_8_9 = new Migration(8, 9) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL(
+                    "CREATE VIRTUAL TABLE IF NOT EXISTS `transactions_fts` " +
+                            "USING FTS4(`label` TEXT, `category` TEXT, content=`transactions`)"
+            );
+            createFtsTriggers(db, "transactions_fts", "transactions", "label", "category");
+            db.execSQL("INSERT INTO transactions_fts(transactions_fts) VALUES('rebuild')");
+        }
+    };
+    // Money as INTEGER minor units (paisa). SQLite cannot change a column's
+    // type, so the four tables holding amounts are rebuilt; ids are kept, so
+    // the FTS docids still line up once its triggers are recreated
+    static final Migration MIGRATION_9_10 = new Migration(9, 10) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL(
+                    "CREATE TABLE IF NOT EXISTS `transactions_new` (" +
+                            "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL," +
+                            "`label` TEXT," +
+                            "`amount` INTEGER NOT NULL," +
+                            "`timestamp` INTEGER NOT NULL," +
+                            "`day_key` INTEGER NOT NULL," +
+                            "`month_key` INTEGER NOT NULL," +
+                            "`year_key` INTEGER NOT NULL," +
+                            "`category` TEXT," +
+                            "`created_at` INTEGER NOT NULL," +
+                            "`updated_at` INTEGER," +
+                            "`type` TEXT)"
+            );
+            db.execSQL(
+                    "INSERT INTO transactions_new (id, label, amount, timestamp, day_key, month_key, " +
+                            "year_key, category, created_at, updated_at, type) " +
+                            "SELECT id, label, CAST(ROUND(amount * 100) AS INTEGER), timestamp, day_key, " +
+                            "month_key, year_key, category, created_at, updated_at, type " +
+                            "FROM transactions"
+            );
+            // Dropping the table drops its FTS triggers too
+            db.execSQL("DROP TABLE transactions");
+            db.execSQL("ALTER TABLE transactions_new RENAME TO transactions");
+            db.execSQL(
+                    "CREATE INDEX IF NOT EXISTS `index_transactions_timestamp` " +
+                            "ON `transactions` (`timestamp`)"
+            );
+            db.execSQL(
+                    "CREATE INDEX IF NOT EXISTS `index_transactions_category_month_key` " +
+                            "ON `transactions` (`category`, `month_key`)"
+            );
+            createFtsTriggers(db, "transactions_fts", "transactions", "label", "category");
+            db.execSQL("INSERT INTO transactions_fts(transactions_fts) VALUES('rebuild')");
+
+            db.execSQL(
+                    "CREATE TABLE IF NOT EXISTS `budget_new` (" +
+                            "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL," +
+                            "`amount` INTEGER NOT NULL," +
+                            "`startDate` INTEGER NOT NULL," +
+                            "`endDate` INTEGER NOT NULL," +
+                            "`active` INTEGER NOT NULL)"
+            );
+            db.execSQL(
+                    "INSERT INTO budget_new (id, amount, startDate, endDate, active) " +
+                            "SELECT id, CAST(ROUND(amount * 100) AS INTEGER), startDate, endDate, active " +
+                            "FROM budget"
+            );
+            db.execSQL("DROP TABLE budget");
+            db.execSQL("ALTER TABLE budget_new RENAME TO budget");
+
+            // Aggregates are derived data: recreate and refill from the converted rows
+            db.execSQL("DROP TABLE daily_rollup");
+            db.execSQL(
+                    "CREATE TABLE IF NOT EXISTS `daily_rollup` (" +
+                            "`day_key` INTEGER NOT NULL," +
+                            "`category` TEXT NOT NULL," +
+                            "`sign` INTEGER NOT NULL," +
+                            "`total` INTEGER NOT NULL," +
+                            "`count` INTEGER NOT NULL," +
+                            "PRIMARY KEY(`day_key`, `category`, `sign`))"
+            );
+            db.execSQL(
+                    "INSERT INTO daily_rollup (day_key, category, sign, total, count) " +
+                            "SELECT day_key, IFNULL(category, ''), " +
+                            "CASE WHEN amount < 0 THEN -1 ELSE 1 END, SUM(amount), COUNT(*) " +
+                            "FROM transactions GROUP BY 1, 2, 3"
+            );
+
+            db.execSQL("DROP TABLE ledger_summary");
+            db.execSQL(
+                    "CREATE TABLE IF NOT EXISTS `ledger_summary` (" +
+                            "`id` INTEGER NOT NULL," +
+                            "`balance` INTEGER NOT NULL," +
+                            "`income` INTEGER NOT NULL," +
+                            "`expense` INTEGER NOT NULL," +
+                            "`count` INTEGER NOT NULL," +
+                            "PRIMARY KEY(`id`))"
+            );
+            db.execSQL(
+                    "INSERT INTO ledger_summary (id, balance, income, expense, count) " +
+                            "SELECT 1, " +
+                            "IFNULL(SUM(amount), 0), " +
+                            "IFNULL(SUM(CASE WHEN amount > 0 THEN amount END), 0), " +
+                            "IFNULL(SUM(CASE WHEN amount <= 0 THEN amount END), 0), " +
+                            "COUNT(*) " +
+                            "FROM transactions"
+            );
+        }
+    };
+
+    // Categories dictionary-encoded into their own table. transactions and
+    // daily_rollup store category_id; the FTS index drops its category column
+    // and names are searched through categories_fts instead
+    static final Migration MIGRATION_10_11 = new Migration(10, 11) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL(
+                    "CREATE TABLE IF NOT EXISTS `categories` (" +
+                            "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL," +
+                            "`name` TEXT NOT NULL)"
+            );
+            db.execSQL(
+                    "CREATE UNIQUE INDEX IF NOT EXISTS `index_categories_name` " +
+                            "ON `categories` (`name`)"
+            );
+            db.execSQL(
+                    "INSERT OR IGNORE INTO categories (name) " +
+                            "SELECT DISTINCT IFNULL(category, '') FROM transactions"
+            );
+
+            db.execSQL(
+                    "CREATE TABLE IF NOT EXISTS `transactions_new` (" +
+                            "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL," +
+                            "`label` TEXT," +
+                            "`amount` INTEGER NOT NULL," +
+                            "`timestamp` INTEGER NOT NULL," +
+                            "`day_key` INTEGER NOT NULL," +
+                            "`month_key` INTEGER NOT NULL," +
+                            "`year_key` INTEGER NOT NULL," +
+                            "`category_id` INTEGER NOT NULL," +
+                            "`created_at` INTEGER NOT NULL," +
+                            "`updated_at` INTEGER," +
+                            "`type` TEXT," +
+                            "FOREIGN KEY(`category_id`) REFERENCES `categories`(`id`) " +
+                            "ON UPDATE NO ACTION ON DELETE NO ACTION )"
+            );
+            db.execSQL(
+                    "INSERT INTO transactions_new (id, label, amount, timestamp, day_key, month_key, " +
+                            "year_key, category_id, created_at, updated_at, type) " +
+                            "SELECT t.id, t.label, t.amount, t.timestamp, t.day_key, t.month_key, " +
+                            "t.year_key, c.id, t.created_at, t.updated_at, t.type " +
+                            "FROM transactions t JOIN categories c ON c.name = IFNULL(t.category, '')"
+            );
+            // Dropping the tables drops the FTS triggers too
+            db.execSQL("DROP TABLE transactions");
+            db.execSQL("ALTER TABLE transactions_new RENAME TO transactions");
+            db.execSQL(
+                    "CREATE INDEX IF NOT EXISTS `index_transactions_timestamp` " +
+                            "ON `transactions` (`timestamp`)"
+            );
+            db.execSQL(
+                    "CREATE INDEX IF NOT EXISTS `index_transactions_category_id_month_key` " +
+                            "ON `transactions` (`category_id`, `month_key`)"
+            );
+
+            db.execSQL("DROP TABLE IF EXISTS transactions_fts");
+            db.execSQL(
+                    "CREATE VIRTUAL TABLE IF NOT EXISTS `transactions_fts` " +
+                            "USING FTS4(`label` TEXT, content=`transactions`)"
+            );
+            createFtsTriggers(db, "transactions_fts", "transactions", "label");
+            db.execSQL("INSERT INTO transactions_fts(transactions_fts) VALUES('rebuild')");
+
+            db.execSQL(
+                    "CREATE VIRTUAL TABLE IF NOT EXISTS `categories_fts` " +
+                            "USING FTS4(`name` TEXT, content=`categories`)"
+            );
+            createFtsTriggers(db, "categories_fts", "categories", "name");
+            db.execSQL("INSERT INTO categories_fts(categories_fts) VALUES('rebuild')");
+
+            db.execSQL("DROP TABLE daily_rollup");
+            db.execSQL(
+                    "CREATE TABLE IF NOT EXISTS `daily_rollup` (" +
+                            "`day_key` INTEGER NOT NULL," +
+                            "`category_id` INTEGER NOT NULL," +
+                            "`sign` INTEGER NOT NULL," +
+                            "`total` INTEGER NOT NULL," +
+                            "`count` INTEGER NOT NULL," +
+                            "PRIMARY KEY(`day_key`, `category_id`, `sign`))"
+            );
+            db.execSQL(
+                    "INSERT INTO daily_rollup (day_key, category_id, sign, total, count) " +
+                            "SELECT day_key, category_id, " +
+                            "CASE WHEN amount < 0 THEN -1 ELSE 1 END, SUM(amount), COUNT(*) " +
+                            "FROM transactions GROUP BY 1, 2, 3"
+            );
+        }
+    };
+
+    // Budgets per category, spent kept incrementally instead of summed on every read
+    static final Migration MIGRATION_11_12 = new Migration(11, 12) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE budget ADD COLUMN `category_id` INTEGER");
+            db.execSQL("ALTER TABLE budget ADD COLUMN `spent` INTEGER NOT NULL DEFAULT 0");
+            db.execSQL(
+                    "UPDATE budget SET spent = (" +
+                            "SELECT IFNULL(-SUM(amount),0) FROM transactions " +
+                            "WHERE amount < 0 AND timestamp BETWEEN budget.startDate AND budget.endDate)"
+            );
+        }
+    };
+
+    // Recurring rules; their occurrences are ordinary transactions
+    static final Migration MIGRATION_12_13 = new Migration(12, 13) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL(
+                    "CREATE TABLE IF NOT EXISTS `recurring_rules` (" +
+                            "`id` INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL," +
+                            "`label` TEXT," +
+                            "`amount` INTEGER NOT NULL," +
+                            "`category_id` INTEGER NOT NULL," +
+                            "`type` TEXT," +
+                            "`frequency` TEXT," +
+                            "`interval` INTEGER NOT NULL," +
+                            "`start_at` INTEGER NOT NULL," +
+                            "`end_at` INTEGER," +
+                            "`next_index` INTEGER NOT NULL," +
+                            "`next_at` INTEGER NOT NULL," +
+                            "`active` INTEGER NOT NULL," +
+                            "FOREIGN KEY(`category_id`) REFERENCES `categories`(`id`) " +
+                            "ON UPDATE NO ACTION ON DELETE NO ACTION )"
+            );
+            db.execSQL(
+                    "CREATE INDEX IF NOT EXISTS `index_recurring_rules_category_id` " +
+                            "ON `recurring_rules` (`category_id`)"
+            );
+            db.execSQL(
+                    "CREATE INDEX IF NOT EXISTS `index_recurring_rules_next_at` " +
+                            "ON `recurring_rules` (`next_at`)"
+            );
+        }
+    };
+
+    // Content-sync triggers for an external-content FTS table, named and shaped
+    // like the ones Room generates; recreated whenever the content table is rebuilt
+    private static void createFtsTriggers(SupportSQLiteDatabase db, String fts,
+                                          String content, String... columns) {
+        StringBuilder names = new StringBuilder();
+        StringBuilder values = new StringBuilder();
+        for (String column : columns) {
+            names.append(", `").append(column).append('`');
+            values.append(", NEW.`").append(column).append('`');
+        }
+
+        String prefix = "CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_" + fts + "_";
+        String delete = "DELETE FROM `" + fts + "` WHERE `docid`=OLD.`rowid`; END";
+        String insert = "INSERT INTO `" + fts + "`(`docid`" + names + ") " +
+                "VALUES (NEW.`rowid`" + values + "); END";
+
+        db.execSQL(prefix + "BEFORE_UPDATE BEFORE UPDATE ON `" + content + "` BEGIN " + delete);
+        db.execSQL(prefix + "BEFORE_DELETE BEFORE DELETE ON `" + content + "` BEGIN " + delete);
+        db.execSQL(prefix + "AFTER_UPDATE AFTER UPDATE ON `" + content + "` BEGIN " + insert);
+        db.execSQL(prefix + "AFTER_INSERT AFTER INSERT ON `" + content + "` BEGIN " + insert);
+    }
+}
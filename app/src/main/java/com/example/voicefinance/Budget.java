@@ -1,5 +1,7 @@
 package com.example.voicefinance;
 
+import androidx.annotation.Nullable;
+import androidx.room.ColumnInfo;
 import androidx.room.Entity;
 import androidx.room.PrimaryKey;
 
@@ -9,15 +11,28 @@ public class Budget {
     @PrimaryKey(autoGenerate = true)
     public int id;
 
-    public double amount;        // Total budget
+    public long amount;          // Total budget, minor units
     public long startDate;       // millis
     public long endDate;         // millis
-    public boolean active;       // only ONE allowed
+    public boolean active;       // one active budget per category, plus one overall
 
-    public Budget(double amount, long startDate, long endDate, boolean active) {
+    @ColumnInfo(name = "category_id")
+    @Nullable
+    public Integer categoryId;   // null: counts every expense
+
+    // Expenses inside [startDate, endDate] (positive, minor units), kept by LedgerWriter
+    @ColumnInfo(defaultValue = "0")
+    public long spent;
+
+    public Budget(long amount, long startDate, long endDate, boolean active) {
         this.amount = amount;
         this.startDate = startDate;
         this.endDate = endDate;
         this.active = active;
     }
+
+    public boolean covers(Transaction t) {
+        return t.timestamp >= startDate && t.timestamp <= endDate
+                && (categoryId == null || categoryId == t.categoryId);
+    }
 }
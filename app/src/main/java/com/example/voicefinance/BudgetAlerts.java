@@ -0,0 +1,186 @@
+package com.example.voicefinance;
+
+import android.Manifest;
+import android.app.NotificationChannel;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.content.pm.PackageManager;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import androidx.core.app.NotificationCompat;
+import androidx.core.app.NotificationManagerCompat;
+import androidx.core.content.ContextCompat;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Budget threshold alerts, raised by the write path.
+ *
+ * LedgerWriter reports each budget's spent before and after a write; a
+ * crossing of 50%, 80% or 100% of its amount (category budgets act as
+ * category caps) is kept until the outermost transaction commits, and
+ * dropped if it rolls back. Committed crossings are debounced: one local
+ * notification sums up everything crossed within DEBOUNCE_MS of quiet (at
+ * most MAX_DELAY_MS after the first), so a bulk import raises one summary
+ * instead of one alert per batch. Nothing rescans the ledger.
+ */
+public class BudgetAlerts {
+
+    static final int[] THRESHOLD_PERCENTS = {50, 80, 100};
+
+    private static final String CHANNEL_ID = "budget_alerts";
+    private static final int NOTIFICATION_ID = 1001;
+
+    private static final long DEBOUNCE_MS = 2000;
+    private static final long MAX_DELAY_MS = 15000;
+
+    private static volatile Context appContext;
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private static final Runnable notifyPending = BudgetAlerts::notifyPending;
+
+    // ---- writer thread: crossings of the transaction in progress ----
+    private static final List<Alert> uncommitted = new ArrayList<>();
+
+    // ---- guarded by pending: committed, waiting for the debounce ----
+    private static final Map<Integer, Alert> pending = new LinkedHashMap<>();
+    private static long firstPendingAt;
+
+    // Call once with any context; alerts before that are dropped
+    public static void install(Context context) {
+        Context app = context.getApplicationContext();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            NotificationChannel channel = new NotificationChannel(
+                    CHANNEL_ID, "Budget alerts", NotificationManager.IMPORTANCE_DEFAULT);
+            channel.setDescription("When spending reaches 50%, 80% or 100% of a budget");
+            app.getSystemService(NotificationManager.class).createNotificationChannel(channel);
+        }
+        appContext = app;
+    }
+
+    // -----------------------------
+    // WRITE PATH (writer thread)
+    // -----------------------------
+
+    // Inside the write transaction, once per budget the write moved
+    static void noteSpent(AppDatabase db, Budget budget, long before, long after) {
+        if (budget.amount <= 0 || after <= before) return;
+
+        int crossed = 0;
+        for (int percent : THRESHOLD_PERCENTS) {
+            long threshold = budget.amount * percent;
+            if (before * 100 < threshold && after * 100 >= threshold) crossed = percent;
+        }
+        if (crossed == 0) return;
+
+        String category = budget.categoryId == null ? null : Categories.nameOf(db, budget.categoryId);
+        uncommitted.add(new Alert(budget.id, category, crossed, after, budget.amount));
+    }
+
+    static void committed() {
+        if (uncommitted.isEmpty()) return;
+        synchronized (pending) {
+            if (pending.isEmpty()) firstPendingAt = SystemClock.uptimeMillis();
+            for (Alert a : uncommitted) {
+                Alert previous = pending.get(a.budgetId);
+                // Highest threshold wins, spent is always the latest
+                if (previous != null && previous.percent > a.percent) a.percent = previous.percent;
+                pending.put(a.budgetId, a);
+            }
+            uncommitted.clear();
+
+            long wait = Math.min(DEBOUNCE_MS,
+                    firstPendingAt + MAX_DELAY_MS - SystemClock.uptimeMillis());
+            mainHandler.removeCallbacks(notifyPending);
+            mainHandler.postDelayed(notifyPending, Math.max(0, wait));
+        }
+    }
+
+    static void rolledBack() {
+        uncommitted.clear();
+    }
+
+    // -----------------------------
+    // NOTIFICATION (main thread)
+    // -----------------------------
+
+    private static void notifyPending() {
+        List<Alert> alerts;
+        synchronized (pending) {
+            alerts = new ArrayList<>(pending.values());
+            pending.clear();
+        }
+        Context context = appContext;
+        if (alerts.isEmpty() || context == null || !canNotify(context)) return;
+
+        NotificationCompat.Builder builder = new NotificationCompat.Builder(context, CHANNEL_ID)
+                .setSmallIcon(R.drawable.ic_budget_alert)
+                .setContentIntent(openApp(context))
+                .setAutoCancel(true);
+
+        if (alerts.size() == 1) {
+            Alert a = alerts.get(0);
+            builder.setContentTitle(a.title()).setContentText(a.detail());
+        } else {
+            NotificationCompat.InboxStyle inbox = new NotificationCompat.InboxStyle();
+            for (Alert a : alerts) inbox.addLine(a.title());
+            builder.setContentTitle(alerts.size() + " budget alerts")
+                    .setContentText(alerts.get(0).title())
+                    .setStyle(inbox);
+        }
+
+        // One notification, replaced by the next summary
+        try {
+            NotificationManagerCompat.from(context).notify(NOTIFICATION_ID, builder.build());
+        } catch (SecurityException ignored) {
+            // Permission revoked between the check and the call
+        }
+    }
+
+    private static boolean canNotify(Context context) {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU
+                && ContextCompat.checkSelfPermission(context, Manifest.permission.POST_NOTIFICATIONS)
+                != PackageManager.PERMISSION_GRANTED) {
+            return false;
+        }
+        return NotificationManagerCompat.from(context).areNotificationsEnabled();
+    }
+
+    private static PendingIntent openApp(Context context) {
+        Intent intent = new Intent(context, MainActivity.class)
+                .setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TOP);
+        return PendingIntent.getActivity(context, 0, intent, PendingIntent.FLAG_IMMUTABLE);
+    }
+
+    private static final class Alert {
+        final int budgetId;
+        final String category;  // null for the overall budget
+        int percent;
+        final long spent;
+        final long amount;
+
+        Alert(int budgetId, String category, int percent, long spent, long amount) {
+            this.budgetId = budgetId;
+            this.category = category;
+            this.percent = percent;
+            this.spent = spent;
+            this.amount = amount;
+        }
+
+        String title() {
+            String scope = category == null ? "Budget" : category + " budget";
+            return percent >= 100 ? "⚠ " + scope + " exceeded" : scope + ": " + percent + "% used";
+        }
+
+        String detail() {
+            return CurrencyUtils.formatMinor(spent) + " of " + CurrencyUtils.formatMinor(amount) + " spent";
+        }
+    }
+}
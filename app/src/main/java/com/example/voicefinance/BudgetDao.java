@@ -2,9 +2,12 @@ package com.example.voicefinance;
 
 import androidx.lifecycle.LiveData;
 import androidx.room.Dao;
+import androidx.room.Embedded;
 import androidx.room.Insert;
 import androidx.room.Query;
 
+import java.util.List;
+
 @Dao
 public interface BudgetDao {
 
@@ -14,11 +17,67 @@ public interface BudgetDao {
     @Query("UPDATE budget SET active = 0")
     void deactivateAll();
 
+    // Replaced by a new budget of the same scope
+    @Query("UPDATE budget SET active = 0 WHERE active = 1 AND category_id IS :categoryId")
+    void deactivateScope(Integer categoryId);
+
     @Insert
-    void insert(Budget budget);
+    long insert(Budget budget);
 
-    @Query("SELECT * FROM budget WHERE active = 1 LIMIT 1")
+    // Overall budget
+    @Query("SELECT * FROM budget WHERE active = 1 AND category_id IS NULL LIMIT 1")
     LiveData<Budget> getActiveBudget();
 
+    /* ---------------------------------------------------
+     * SPENT BOOKKEEPING (writer thread, via Budgets / LedgerWriter)
+     * --------------------------------------------------- */
+
+    @Query("SELECT * FROM budget WHERE active = 1")
+    List<Budget> getActive();
+
+    @Query("UPDATE budget SET spent = spent + :delta WHERE id = :id")
+    void addSpent(int id, long delta);
+
+    // One range scan when a budget is created; writes keep it up to date afterwards
+    @Query(
+            "SELECT IFNULL(-SUM(amount),0) FROM transactions " +
+                    "WHERE amount < 0 AND timestamp BETWEEN :start AND :end " +
+                    "AND (:categoryId IS NULL OR category_id = :categoryId)"
+    )
+    long getExpenseBetween(long start, long end, Integer categoryId);
+
+    @Query(
+            "UPDATE budget SET spent = (" +
+                    "SELECT IFNULL(-SUM(amount),0) FROM transactions " +
+                    "WHERE amount < 0 AND timestamp BETWEEN budget.startDate AND budget.endDate " +
+                    "AND (budget.category_id IS NULL OR category_id = budget.category_id))"
+    )
+    void recomputeSpent();
+
+    /* ---------------------------------------------------
+     * SNAPSHOT
+     * One row per active budget; re-emitted once per commit that moved a spent
+     * --------------------------------------------------- */
+
+    @Query(
+            "SELECT budget.*, categories.name AS category FROM budget " +
+                    "LEFT JOIN categories ON categories.id = budget.category_id " +
+                    "WHERE budget.active = 1 " +
+                    "ORDER BY budget.category_id IS NOT NULL, categories.name"
+    )
+    LiveData<List<BudgetStatus>> getBudgetStatuses();
+
+    class BudgetStatus {
+        @Embedded
+        public Budget budget;
+        public String category;     // null for the overall budget
+
+        public long remaining() {
+            return budget.amount - budget.spent;
+        }
 
+        public boolean isExceeded() {
+            return budget.spent >= budget.amount;
+        }
+    }
 }
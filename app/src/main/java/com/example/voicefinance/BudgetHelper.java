@@ -1,21 +1,69 @@
 package com.example.voicefinance;
 
 import android.content.Context;
+import android.util.Log;
+
 import androidx.lifecycle.LiveData;
 
+import java.util.List;
+
 public class BudgetHelper {
 
-    // Save new budget (only one can be active)
-    public static void saveBudget(Context ctx, double amount, long start, long end) {
+    private static final String TAG = "BudgetHelper";
+
+    public enum SaveResult { SAVED, UNKNOWN_CATEGORY, FAILED }
+
+    // Called on the writer thread once the save is done or refused
+    public interface SaveCallback {
+        void onResult(SaveResult result);
+    }
+
+    // Save new overall budget (replaces the active overall one)
+    public static void saveBudget(Context ctx, long amount, long start, long end,
+                                  SaveCallback callback) {
+        saveBudget(ctx, null, amount, start, end, callback);
+    }
+
+    // category null for an overall budget; replaces the active budget of the same
+    // scope. A category budget needs an existing category: a typo must not create one
+    public static void saveBudget(Context ctx, String category, long amount, long start, long end,
+                                  SaveCallback callback) {
         AppDatabase.databaseWriteExecutor.execute(() -> {
-            BudgetDao dao = AppDatabase.getDatabase(ctx).budgetDao();
-            dao.deactivateAll();
-            dao.insert(new Budget(amount, start, end, true));
+            AppDatabase db = AppDatabase.getDatabase(ctx);
+            SaveResult result;
+            try {
+                Integer categoryId = category == null ? null : Categories.find(db, category);
+                if (category != null && categoryId == null) {
+                    result = SaveResult.UNKNOWN_CATEGORY;
+                } else {
+                    // Atomic: readers never observe "no active budget" in between
+                    db.runInTransaction(() -> {
+                        db.budgetDao().deactivateScope(categoryId);
+
+                        Budget budget = new Budget(amount, start, end, true);
+                        budget.categoryId = categoryId;
+                        budget.spent = db.budgetDao().getExpenseBetween(start, end, categoryId);
+                        db.budgetDao().insert(budget);
+                    });
+                    result = SaveResult.SAVED;
+                }
+            } catch (RuntimeException e) {
+                Log.e(TAG, "Saving budget failed", e);
+                result = SaveResult.FAILED;
+            } finally {
+                Budgets.invalidate();
+            }
+            if (callback != null) callback.onResult(result);
         });
     }
 
-    // Live active budget (UI safe)
+    // Live overall budget (UI safe)
     public static LiveData<Budget> getActiveBudget(Context ctx) {
         return AppDatabase.getDatabase(ctx).budgetDao().getActiveBudget();
     }
+
+    // Every active budget with its spent amount, overall first (UI safe)
+    public static LiveData<List<BudgetDao.BudgetStatus>> getBudgetStatuses(Context ctx) {
+        return AppDatabase.getDatabase(ctx).budgetDao().getBudgetStatuses();
+    }
 }
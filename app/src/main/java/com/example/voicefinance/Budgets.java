@@ -0,0 +1,66 @@
+package com.example.voicefinance;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory copy of the active budgets, indexed by category.
+ *
+ * LedgerWriter asks which budgets a written row counts towards: the overall
+ * budgets plus the ones of the row's category, so the cost per row is the
+ * number of budgets it can affect, not the number of budgets or
+ * transactions. Spent amounts are mirrored here as LedgerWriter applies
+ * them. Call on AppDatabase.databaseWriteExecutor; invalidate() after the
+ * budget table changes any other way.
+ */
+public class Budgets {
+
+    private static final List<Budget> overall = new ArrayList<>();
+    private static final Map<Integer, List<Budget>> byCategory = new HashMap<>();
+    private static boolean loaded;
+
+    // Budgets whose window and category cover t
+    static synchronized List<Budget> covering(AppDatabase db, Transaction t) {
+        ensureLoaded(db);
+        List<Budget> scoped = byCategory.get(t.categoryId);
+        if (overall.isEmpty() && scoped == null) return Collections.emptyList();
+
+        List<Budget> out = new ArrayList<>(2);
+        for (Budget b : overall) if (b.covers(t)) out.add(b);
+        if (scoped != null) {
+            for (Budget b : scoped) if (b.covers(t)) out.add(b);
+        }
+        return out;
+    }
+
+    // After the matching UPDATE ran in the same transaction
+    static synchronized void addSpent(Budget budget, long delta) {
+        budget.spent += delta;
+    }
+
+    static synchronized void invalidate() {
+        loaded = false;
+    }
+
+    private static void ensureLoaded(AppDatabase db) {
+        if (loaded) return;
+        overall.clear();
+        byCategory.clear();
+        for (Budget b : db.budgetDao().getActive()) {
+            if (b.categoryId == null) {
+                overall.add(b);
+            } else {
+                List<Budget> list = byCategory.get(b.categoryId);
+                if (list == null) {
+                    list = new ArrayList<>(1);
+                    byCategory.put(b.categoryId, list);
+                }
+                list.add(b);
+            }
+        }
+        loaded = true;
+    }
+}
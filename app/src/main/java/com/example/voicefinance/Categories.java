@@ -0,0 +1,73 @@
+package com.example.voicefinance;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * In-memory copy of the categories table (name <-> id).
+ *
+ * The table is small and rows are never deleted, so it is read once and
+ * then only grows: LedgerWriter maps each written row's category name to
+ * its id here, inserting new names on the writer thread. Call idFor() and
+ * find() on AppDatabase.databaseWriteExecutor.
+ */
+public class Categories {
+
+    private static final Map<String, Integer> ids = new HashMap<>();
+    private static final Map<Integer, String> names = new HashMap<>();
+    private static boolean loaded;
+
+    // Creates the category when it is new; null maps to ""
+    public static synchronized int idFor(AppDatabase db, String name) {
+        String key = name == null ? "" : name.trim();
+        ensureLoaded(db);
+
+        Integer id = ids.get(key);
+        if (id == null) {
+            CategoryDao dao = db.categoryDao();
+            long inserted = dao.insert(new Category(key));
+            id = inserted > 0 ? (int) inserted : dao.getIdByName(key);
+            put(id, key);
+        }
+        return id;
+    }
+
+    // Existing category only, never creates one; null when there is none by that name
+    public static synchronized Integer find(AppDatabase db, String name) {
+        String key = name == null ? "" : name.trim();
+        ensureLoaded(db);
+        return ids.get(key);
+    }
+
+    public static synchronized String nameOf(AppDatabase db, int id) {
+        ensureLoaded(db);
+        String name = names.get(id);
+        if (name == null) {
+            // Created by another connection since the load
+            reload(db);
+            name = names.get(id);
+        }
+        return name == null ? "" : name;
+    }
+
+    // Drops ids that a rolled-back transaction may have handed out
+    static synchronized void invalidate() {
+        loaded = false;
+    }
+
+    private static void ensureLoaded(AppDatabase db) {
+        if (!loaded) reload(db);
+    }
+
+    private static void reload(AppDatabase db) {
+        ids.clear();
+        names.clear();
+        for (Category c : db.categoryDao().getAll()) put(c.id, c.name);
+        loaded = true;
+    }
+
+    private static void put(int id, String name) {
+        ids.put(name, id);
+        names.put(id, name);
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.voicefinance;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * Category dictionary. Transactions and daily_rollup store the integer id;
+ * the name lives here once, so a rename is a single row update.
+ * "" is the category of rows that never had one.
+ */
+@Entity(
+        tableName = "categories",
+        indices = {@Index(value = "name", unique = true)}
+)
+public class Category {
+
+    @PrimaryKey(autoGenerate = true)
+    public int id;
+
+    @NonNull
+    public String name = "";
+
+    public Category(@NonNull String name) {
+        this.name = name;
+    }
+}
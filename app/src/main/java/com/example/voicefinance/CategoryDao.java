@@ -0,0 +1,22 @@
+package com.example.voicefinance;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+
+import java.util.List;
+
+@Dao
+public interface CategoryDao {
+
+    // -1 when the name already exists
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    long insert(Category category);
+
+    @Query("SELECT id FROM categories WHERE name = :name")
+    Integer getIdByName(String name);
+
+    @Query("SELECT * FROM categories")
+    List<Category> getAll();
+}
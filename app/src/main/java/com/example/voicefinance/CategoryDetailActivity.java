@@ -11,7 +11,7 @@ import com.google.android.material.appbar.MaterialToolbar;
 
 public class CategoryDetailActivity extends AppCompatActivity {
 
-    private AppDatabase db;
+    private LedgerRepository repository;
     private RecyclerView recyclerView;
 
     @Override
@@ -56,9 +56,9 @@ public class CategoryDetailActivity extends AppCompatActivity {
         recyclerView.setLayoutManager(new LinearLayoutManager(this));
 
         // -------------------------------
-        // Database
+        // Repository (results cached per category and month)
         // -------------------------------
-        db = AppDatabase.getDatabase(this);
+        repository = LedgerRepository.get(this);
 
         // If year and month are provided, show only that month
         // Otherwise, show full category history
@@ -83,7 +83,7 @@ public class CategoryDetailActivity extends AppCompatActivity {
     // -------------------------------
     private void observeCategoryData(String category, String year, String month) {
 
-        db.transactionDao()
+        repository
                 .getTransactionsByCategoryAndMonth(category, year, month)
                 .observe(this, transactions -> {
 
@@ -101,7 +101,7 @@ public class CategoryDetailActivity extends AppCompatActivity {
     // -------------------------------
     private void observeFullCategoryHistory(String category) {
 
-        db.transactionDao()
+        repository
                 .getTransactionsByCategory(category)
                 .observe(this, transactions -> {
 
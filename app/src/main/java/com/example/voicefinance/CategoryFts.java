@@ -0,0 +1,14 @@
+package com.example.voicefinance;
+
+import androidx.room.Entity;
+import androidx.room.Fts4;
+
+/**
+ * Full-text index over category names, searched next to transactions_fts.
+ * External-content table kept in sync by Room's triggers on categories.
+ */
+@Fts4(contentEntity = Category.class)
+@Entity(tableName = "categories_fts")
+public class CategoryFts {
+    public String name;
+}
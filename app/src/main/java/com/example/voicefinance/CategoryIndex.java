@@ -0,0 +1,220 @@
+package com.example.voicefinance;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Learns which category a label belongs to from the ledger itself.
+ *
+ * Every word of every stored label (and category name) counts towards that
+ * row's category. resolve() looks up each word of a new label once and
+ * lets them vote with their majority category, weighted by how consistent
+ * that word has been, so "lunch at office" lands in the existing "lunch"
+ * category instead of becoming a category of its own. Words seen under many
+ * categories ("bill") barely vote. Cost is one hash lookup per word:
+ * O(label length), independent of ledger size.
+ *
+ * load() reads the ledger once on a background thread without holding the
+ * index's lock, and swaps the result in under it, so resolve() never waits
+ * for the full-table query. Until then resolve() keeps the label as its own
+ * category. LedgerWriter reports rows through learn() / forget() inside its
+ * transaction; they are held until the outermost transaction commits and
+ * dropped if it rolls back. A write committed while the query runs may or
+ * may not be in its result, so load() then queries again rather than guess.
+ */
+public class CategoryIndex {
+
+    // A single word must point to one category at least this consistently
+    private static final double MIN_SCORE = 0.5;
+
+    private static final int MIN_WORD_LENGTH = 2;
+
+    // ---- guarded by words ----
+    private static final Map<String, WordStats> words = new HashMap<>();
+    private static boolean loaded;
+    private static int writes;      // commits applied so far
+
+    // ---- writer thread: rows of the transaction in progress ----
+    private static final List<Delta> uncommitted = new ArrayList<>();
+
+    // Any background thread; returns at once when already loaded
+    public static void load(AppDatabase db) {
+        while (true) {
+            int writesBefore;
+            synchronized (words) {
+                if (loaded) return;
+                writesBefore = writes;
+            }
+
+            Map<String, WordStats> built = new HashMap<>();
+            for (TransactionDao.LabelCategoryCount row : db.transactionDao().getLabelCategoryCounts()) {
+                add(built, row.label, row.category, row.count);
+            }
+
+            synchronized (words) {
+                if (loaded) return;
+                if (writes != writesBefore) continue;   // raced a write: read again
+                words.putAll(built);
+                loaded = true;
+                return;
+            }
+        }
+    }
+
+    // Category for a new label; the trimmed label itself when nothing matches
+    public static String resolve(String label) {
+        String fallback = label.trim();
+        List<String> tokens = tokenize(label);
+
+        synchronized (words) {
+            if (!loaded || tokens.isEmpty()) return fallback;
+
+            // Labels are a handful of words: parallel lists beat a map here
+            List<String> candidates = new ArrayList<>(tokens.size());
+            List<Double> scores = new ArrayList<>(tokens.size());
+
+            for (String token : tokens) {
+                WordStats stats = words.get(token);
+                if (stats == null || stats.best == null) continue;
+
+                double vote = stats.bestCount / (double) stats.total;
+                int at = candidates.indexOf(stats.best);
+                if (at < 0) {
+                    candidates.add(stats.best);
+                    scores.add(vote);
+                } else {
+                    scores.set(at, scores.get(at) + vote);
+                }
+            }
+
+            String best = null;
+            double bestScore = MIN_SCORE;
+            for (int i = 0; i < candidates.size(); i++) {
+                if (scores.get(i) >= bestScore) {
+                    best = candidates.get(i);
+                    bestScore = scores.get(i);
+                }
+            }
+            return best != null ? best : fallback;
+        }
+    }
+
+    // ------------------------------------------------
+    // INCREMENTAL UPDATES (called by LedgerWriter inside each write)
+    // ------------------------------------------------
+    static void learn(List<Transaction> rows) {
+        for (Transaction t : rows) uncommitted.add(new Delta(t.label, t.category, 1));
+    }
+
+    static void forget(List<Transaction> rows) {
+        for (Transaction t : rows) uncommitted.add(new Delta(t.label, t.category, -1));
+    }
+
+    // The outermost transaction committed: count its rows
+    static void committed() {
+        if (uncommitted.isEmpty()) return;
+        synchronized (words) {
+            writes++;
+            if (loaded) {   // otherwise load() will read these rows from the table
+                for (Delta d : uncommitted) add(words, d.label, d.category, d.count);
+            }
+        }
+        uncommitted.clear();
+    }
+
+    static void rolledBack() {
+        uncommitted.clear();
+    }
+
+    private static void add(Map<String, WordStats> into, String label, String category, int count) {
+        if (category == null || category.trim().isEmpty()) return;
+        category = category.trim();
+
+        if (label != null) {
+            for (String token : tokenize(label)) addWord(into, token, category, count);
+        }
+        for (String token : tokenize(category)) addWord(into, token, category, count);
+    }
+
+    private static void addWord(Map<String, WordStats> into, String token, String category, int count) {
+        WordStats stats = into.get(token);
+        if (stats == null) {
+            if (count <= 0) return;
+            stats = new WordStats();
+            into.put(token, stats);
+        }
+        stats.add(category, count);
+        if (stats.total <= 0) into.remove(token);
+    }
+
+    // Lowercase runs of letters; digits and punctuation separate words
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>(4);
+        if (text == null) return tokens;
+
+        StringBuilder sb = new StringBuilder(16);
+        for (int i = 0, n = text.length(); i <= n; i++) {
+            char c = i < n ? text.charAt(i) : ' ';
+            int type = Character.getType(c);
+            if (Character.isLetter(c)
+                    || type == Character.NON_SPACING_MARK
+                    || type == Character.COMBINING_SPACING_MARK) {
+                sb.append(Character.toLowerCase(c));
+            } else if (sb.length() > 0) {
+                if (sb.length() >= MIN_WORD_LENGTH) tokens.add(sb.toString());
+                sb.setLength(0);
+            }
+        }
+        return tokens;
+    }
+
+    // Label and category as written, so later edits to the row don't leak in
+    private static final class Delta {
+        final String label;
+        final String category;
+        final int count;
+
+        Delta(String label, String category, int count) {
+            this.label = label;
+            this.category = category;
+            this.count = count;
+        }
+    }
+
+    // Per-word category counts with the majority kept up to date
+    private static final class WordStats {
+        final Map<String, Integer> counts = new HashMap<>(4);
+        String best;
+        int bestCount;
+        int total;
+
+        void add(String category, int delta) {
+            Integer current = counts.get(category);
+            int updated = (current == null ? 0 : current) + delta;
+            if (updated > 0) counts.put(category, updated);
+            else counts.remove(category);
+            total += delta;
+
+            if (category.equals(best)) {
+                if (updated >= bestCount) bestCount = updated;
+                else rescan();      // the majority shrank, another may lead now
+            } else if (updated > bestCount) {
+                best = category;
+                bestCount = updated;
+            }
+        }
+
+        private void rescan() {
+            best = null;
+            bestCount = 0;
+            for (Map.Entry<String, Integer> e : counts.entrySet()) {
+                if (e.getValue() > bestCount) {
+                    best = e.getKey();
+                    bestCount = e.getValue();
+                }
+            }
+        }
+    }
+}
@@ -17,7 +17,7 @@ import java.util.Map;
 public class CategoryRankingAdapter extends RecyclerView.Adapter<CategoryRankingAdapter.ViewHolder> {
 
     private List<TransactionDao.CategoryTotal> categories;
-    private double totalExpense;
+    private long totalExpense;
     private Map<String, Integer> categoryColors;
     private OnCategoryClickListener listener;
 
@@ -25,7 +25,7 @@ public class CategoryRankingAdapter extends RecyclerView.Adapter<CategoryRanking
         void onCategoryClick(String category, String year, String month);
     }
 
-    public CategoryRankingAdapter(List<TransactionDao.CategoryTotal> categories, double totalExpense, OnCategoryClickListener listener) {
+    public CategoryRankingAdapter(List<TransactionDao.CategoryTotal> categories, long totalExpense, OnCategoryClickListener listener) {
         this.categories = categories;
         this.totalExpense = totalExpense;
         this.categoryColors = new HashMap<>();
@@ -47,12 +47,12 @@ public class CategoryRankingAdapter extends RecyclerView.Adapter<CategoryRanking
         holder.rankNumber.setText(String.valueOf(position + 1));
         holder.categoryName.setText(category.category);
 
-        double amount = Math.abs(category.total);
+        long amount = Math.abs(category.total);
         holder.categoryAmount.setText(
-                CurrencyUtils.getCurrencyInstance().format(amount)
+                CurrencyUtils.formatMinor(amount)
         );
 
-        double percentage = totalExpense != 0 ? (amount / Math.abs(totalExpense)) * 100 : 0;
+        double percentage = totalExpense != 0 ? (amount * 100.0 / Math.abs(totalExpense)) : 0;
         holder.categoryPercentage.setText(String.format("%.1f%%", percentage));
 
         // Set category color from pie chart
@@ -76,7 +76,7 @@ public class CategoryRankingAdapter extends RecyclerView.Adapter<CategoryRanking
         return categories != null ? categories.size() : 0;
     }
 
-    public void updateData(List<TransactionDao.CategoryTotal> newCategories, double newTotalExpense) {
+    public void updateData(List<TransactionDao.CategoryTotal> newCategories, long newTotalExpense) {
         this.categories = newCategories;
         this.totalExpense = newTotalExpense;
         notifyDataSetChanged();
@@ -12,4 +12,14 @@ public class Converters {
     public static String toString(TransactionType value) {
         return value == null ? null : value.name();
     }
+
+    @TypeConverter
+    public static RecurrenceFrequency frequencyFromString(String value) {
+        return value == null ? null : RecurrenceFrequency.valueOf(value);
+    }
+
+    @TypeConverter
+    public static String frequencyToString(RecurrenceFrequency value) {
+        return value == null ? null : value.name();
+    }
 }
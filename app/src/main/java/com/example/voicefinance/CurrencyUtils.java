@@ -2,14 +2,188 @@ package com.example.voicefinance;
 
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
-import java.text.NumberFormat;
 import java.util.Locale;
 
+/**
+ * Taka formatting for bind paths.
+ *
+ * Each thread keeps one DecimalFormat for the current locale. Amounts that
+ * are whole minor units (paisa) are rendered by hand into a reusable char
+ * buffer with the format's own symbols, and the last few results are kept
+ * in a small LRU, so rebinding the same rows while scrolling allocates
+ * nothing. Anything the fast path cannot reproduce exactly goes through
+ * DecimalFormat.
+ */
 public class CurrencyUtils {
 
-    public static NumberFormat getCurrencyInstance() {
-        DecimalFormatSymbols symbols = new DecimalFormatSymbols(Locale.getDefault());
-        symbols.setCurrencySymbol("৳");
-        return new DecimalFormat("¤#,##0.00", symbols);
+    private static final int LRU_SIZE = 64;
+
+    // |minor| above this is formatted through DecimalFormat
+    private static final long MAX_FAST_MINOR = 100_000_000_000_000L;
+
+    private static final ThreadLocal<Formatter> FORMATTER = new ThreadLocal<>();
+
+    // Fixed-point amount in paisa: "৳1,234.50", "-৳12.00"
+    public static String formatMinor(long minor) {
+        Formatter f = formatter();
+        if (Math.abs(minor) > MAX_FAST_MINOR) return f.format.format(Money.toDecimal(minor));
+        return f.formatMinor(minor, false);
+    }
+
+    // Always signed, as the history rows show it: "+৳1,234.50", "-৳12.00"
+    public static String formatSignedMinor(long minor) {
+        Formatter f = formatter();
+        if (Math.abs(minor) > MAX_FAST_MINOR) {
+            return (minor < 0 ? "-" : "+") + f.format.format(Money.toDecimal(Math.abs(minor)));
+        }
+        return f.formatMinor(minor, true);
+    }
+
+    private static Formatter formatter() {
+        Locale locale = Locale.getDefault();
+        Formatter f = FORMATTER.get();
+        if (f == null || !f.locale.equals(locale)) {
+            f = new Formatter(locale);
+            FORMATTER.set(f);
+        }
+        return f;
+    }
+
+    // ------------------------------------------------
+    // PER-THREAD FORMATTER
+    // ------------------------------------------------
+    private static final class Formatter {
+
+        final Locale locale;
+        final DecimalFormat format;
+
+        private final boolean fastPath;
+        private final char[] positivePrefix;
+        private final char[] negativePrefix;
+        private final char zeroDigit;
+        private final char groupingSeparator;
+        private final char decimalSeparator;
+        private final int groupingSize;
+        private final char[] buffer = new char[64];
+
+        private final Lru plain = new Lru();
+        private final Lru signed = new Lru();
+
+        Formatter(Locale locale) {
+            this.locale = locale;
+
+            DecimalFormatSymbols symbols = new DecimalFormatSymbols(locale);
+            symbols.setCurrencySymbol("৳");
+            format = new DecimalFormat("¤#,##0.00", symbols);
+
+            positivePrefix = format.getPositivePrefix().toCharArray();
+            negativePrefix = format.getNegativePrefix().toCharArray();
+            zeroDigit = symbols.getZeroDigit();
+            groupingSeparator = symbols.getGroupingSeparator();
+            decimalSeparator = symbols.getMonetaryDecimalSeparator();
+            groupingSize = format.getGroupingSize();
+
+            // Only trust the hand-rolled output where it matches DecimalFormat
+            fastPath = groupingSize > 0
+                    && format.getPositiveSuffix().isEmpty()
+                    && format.getNegativeSuffix().isEmpty()
+                    && matches(0L) && matches(5L) && matches(123456789L)
+                    && matches(-100L) && matches(-98765432101L);
+        }
+
+        private boolean matches(long minor) {
+            return render(minor, false).equals(format.format(Money.toDecimal(minor)));
+        }
+
+        String formatMinor(long minor, boolean withSign) {
+            if (!fastPath) {
+                if (!withSign) return format.format(Money.toDecimal(minor));
+                return (minor < 0 ? "-" : "+") + format.format(Money.toDecimal(Math.abs(minor)));
+            }
+
+            Lru lru = withSign ? signed : plain;
+            String s = lru.get(minor);
+            if (s == null) {
+                s = render(minor, withSign);
+                lru.put(minor, s);
+            }
+            return s;
+        }
+
+        // Writes right to left into buffer: digits, separators, prefix
+        private String render(long minor, boolean withSign) {
+            boolean negative = minor < 0;
+            long v = Math.abs(minor);
+            int pos = buffer.length;
+
+            buffer[--pos] = (char) (zeroDigit + (int) (v % 10));
+            v /= 10;
+            buffer[--pos] = (char) (zeroDigit + (int) (v % 10));
+            v /= 10;
+            buffer[--pos] = decimalSeparator;
+
+            int inGroup = 0;
+            do {
+                if (inGroup == groupingSize) {
+                    buffer[--pos] = groupingSeparator;
+                    inGroup = 0;
+                }
+                buffer[--pos] = (char) (zeroDigit + (int) (v % 10));
+                v /= 10;
+                inGroup++;
+            } while (v > 0);
+
+            char[] prefix = negative && !withSign ? negativePrefix : positivePrefix;
+            pos -= prefix.length;
+            System.arraycopy(prefix, 0, buffer, pos, prefix.length);
+
+            if (withSign) buffer[--pos] = negative ? '-' : '+';
+
+            return new String(buffer, pos, buffer.length - pos);
+        }
+    }
+
+    // Small LRU keyed by minor units, no boxing: 4-way set associative,
+    // least recently used way evicted within the set
+    private static final class Lru {
+
+        private static final int WAYS = 4;
+        private static final int SET_MASK = LRU_SIZE / WAYS - 1;
+
+        private final long[] keys = new long[LRU_SIZE];
+        private final String[] values = new String[LRU_SIZE];
+        private final long[] lastUsed = new long[LRU_SIZE];
+        private long tick;
+
+        String get(long key) {
+            int base = set(key);
+            for (int i = base; i < base + WAYS; i++) {
+                if (values[i] != null && keys[i] == key) {
+                    lastUsed[i] = ++tick;
+                    return values[i];
+                }
+            }
+            return null;
+        }
+
+        void put(long key, String value) {
+            int base = set(key);
+            int victim = base;
+            for (int i = base; i < base + WAYS; i++) {
+                if (values[i] == null) {
+                    victim = i;
+                    break;
+                }
+                if (lastUsed[i] < lastUsed[victim]) victim = i;
+            }
+            keys[victim] = key;
+            values[victim] = value;
+            lastUsed[victim] = ++tick;
+        }
+
+        private static int set(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return ((int) (h >>> 32) & SET_MASK) * WAYS;
+        }
     }
 }
@@ -0,0 +1,30 @@
+package com.example.voicefinance;
+
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+
+/**
+ * Pre-aggregated totals per local day, category and sign.
+ * Maintained by LedgerWriter in the same transaction as every write,
+ * so dashboard and chart queries never have to scan transactions.
+ */
+@Entity(
+        tableName = "daily_rollup",
+        primaryKeys = {"day_key", "category_id", "sign"}
+)
+public class DailyRollup {
+
+    public static final int SIGN_INCOME = 1;
+    public static final int SIGN_EXPENSE = -1;
+
+    @ColumnInfo(name = "day_key")
+    public int dayKey;          // yyyyMMdd in local time
+
+    @ColumnInfo(name = "category_id")
+    public int categoryId;      // categories.id
+
+    public int sign;            // SIGN_INCOME or SIGN_EXPENSE
+
+    public long total;          // minor units
+    public int count;
+}
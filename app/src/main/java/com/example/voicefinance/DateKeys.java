@@ -0,0 +1,9 @@
+package com.example.voicefinance;
+
+public class DateKeys {
+
+    // yyyyMMdd in local time, e.g. 20250107
+    public static int dayKey(long millis) {
+        return TimeBuckets.get().dayKey(millis);
+    }
+}
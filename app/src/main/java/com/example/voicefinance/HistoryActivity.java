@@ -11,6 +11,8 @@ import java.util.Calendar;
 import java.util.Locale;
 import androidx.appcompat.app.AlertDialog;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.view.Menu;
 import android.widget.ArrayAdapter;
 import android.widget.RadioGroup;
@@ -20,6 +22,7 @@ import androidx.appcompat.widget.SearchView;
 import androidx.core.view.ViewCompat;
 import androidx.core.view.WindowInsetsCompat;
 import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.voicefinance.databinding.ActivityHistoryBinding;
 
@@ -28,19 +31,27 @@ import java.util.List;
 
 public class HistoryActivity extends AppCompatActivity {
 
+    // Rows from either end of the list at which the next page is requested
+    private static final int PREFETCH_DISTANCE = 20;
+    private static final long SEARCH_DEBOUNCE_MS = 250;
+
     private ActivityHistoryBinding binding;
     private AppDatabase db;
     private int selectedWeek;
     private HistoryFilterType currentFilter = HistoryFilterType.DAY;
-    private List<Transaction> cachedTransactions;
+    private HistoryAdapter historyAdapter;
+    private HistoryPager historyPager;
+    private long[] activeWindow;
+    private HistoryFilterType activeFilter;
     private List<String> weekList;
 
     private int selectedDay;
     private int selectedMonth;
     private int selectedYear;
 
-    private boolean spinnersReady = false;
     private String searchQuery = "";
+    private final Handler searchHandler = new Handler(Looper.getMainLooper());
+    private final Runnable searchRunnable = () -> historyPager.setSearchQuery(searchQuery);
 
     private List<String> yearList;
 
@@ -73,9 +84,28 @@ public class HistoryActivity extends AppCompatActivity {
 
         db = AppDatabase.getDatabase(this);
 
-        binding.recyclerView.setLayoutManager(
-                new LinearLayoutManager(this)
-        );
+        LinearLayoutManager layoutManager = new LinearLayoutManager(this);
+        binding.recyclerView.setLayoutManager(layoutManager);
+
+        // One adapter for the screen's lifetime; refreshes are diffed into it
+        historyAdapter = new HistoryAdapter(this::showTransactionOptions);
+        binding.recyclerView.setAdapter(historyAdapter);
+
+        // Rows are paged in by keyset cursor; only a bounded window is held
+        historyPager = new HistoryPager(db, historyAdapter::submitList);
+        binding.recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(RecyclerView rv, int dx, int dy) {
+                int first = layoutManager.findFirstVisibleItemPosition();
+                int last = layoutManager.findLastVisibleItemPosition();
+                if (last >= historyAdapter.getItemCount() - PREFETCH_DISTANCE) {
+                    historyPager.loadNext();
+                }
+                if (first != RecyclerView.NO_POSITION && first <= PREFETCH_DISTANCE) {
+                    historyPager.loadPrevious();
+                }
+            }
+        });
 
         // ---- TODAY DEFAULTS ----
         Calendar today = Calendar.getInstance();
@@ -88,15 +118,42 @@ public class HistoryActivity extends AppCompatActivity {
         setupMonthYearSpinners();
         setupWeekSpinner();
         setupFilterGroup();
+    }
+
+    @Override
+    protected void onDestroy() {
+        searchHandler.removeCallbacks(searchRunnable);
+        historyPager.close();
+        super.onDestroy();
+    }
+
+    // -----------------------------
+    // PERIOD WINDOW
+    // Only the rows of the selected period are paged in
+    // -----------------------------
+    private void reloadWindow() {
+        long[] window;
 
-        // ---- SINGLE DB OBSERVER ----
-        db.transactionDao()
-                .getAllTransactionsOrdered()
-                .observe(this, transactions -> {
-                    cachedTransactions = transactions;
-                    spinnersReady = true;
-                    refreshList();
-                });
+        if (currentFilter == HistoryFilterType.DAY) {
+            window = HistoryUtils.dayWindow(selectedDay, selectedMonth, selectedYear);
+        } else if (currentFilter == HistoryFilterType.WEEK) {
+            window = HistoryUtils.weekWindow(selectedWeek, selectedYear);
+        } else if (currentFilter == HistoryFilterType.MONTH) {
+            window = HistoryUtils.monthWindow(selectedMonth, selectedYear);
+        } else {
+            window = HistoryUtils.yearWindow(selectedYear);
+        }
+
+        if (activeWindow != null
+                && activeFilter == currentFilter
+                && activeWindow[0] == window[0]
+                && activeWindow[1] == window[1]) {
+            return;
+        }
+
+        activeWindow = window;
+        activeFilter = currentFilter;
+        historyPager.reset(window[0], window[1], currentFilter);
     }
 
     // -----------------------------
@@ -130,7 +187,7 @@ public class HistoryActivity extends AppCompatActivity {
                         binding.monthSpinner.setVisibility(View.GONE);
                         binding.yearSpinner.setVisibility(View.GONE);
                     }
-                    refreshList();
+                    reloadWindow();
                 }
         );
         // Set initial state
@@ -152,7 +209,7 @@ public class HistoryActivity extends AppCompatActivity {
                         selectedMonth = month;
                         selectedYear = year;
                         updateDayButtonText();
-                        refreshList();
+                        reloadWindow();
                     },
                     cal.get(Calendar.YEAR),
                     cal.get(Calendar.MONTH),
@@ -209,7 +266,7 @@ public class HistoryActivity extends AppCompatActivity {
         binding.monthSpinner.setOnItemSelectedListener(
                 new SimpleSelectionListener(pos -> {
                     selectedMonth = pos;
-                    refreshList();
+                    reloadWindow();
                 })
         );
 
@@ -221,7 +278,7 @@ public class HistoryActivity extends AppCompatActivity {
                         if (currentFilter == HistoryFilterType.WEEK) {
                             updateWeekSpinner();
                         }
-                        refreshList();
+                        reloadWindow();
                     }
                 })
         );
@@ -236,7 +293,7 @@ public class HistoryActivity extends AppCompatActivity {
         binding.weekSpinner.setOnItemSelectedListener(
                 new SimpleSelectionListener(pos -> {
                     selectedWeek = pos + 1; // Week numbers are 1-based
-                    refreshList();
+                    reloadWindow();
                 })
         );
     }
@@ -271,65 +328,6 @@ public class HistoryActivity extends AppCompatActivity {
         selectedWeek = selection + 1;
     }
 
-    // -----------------------------
-    // REFRESH LIST
-    // -----------------------------
-    private void refreshList() {
-        if (!spinnersReady || cachedTransactions == null) return;
-
-        List<Transaction> source;
-
-        if (currentFilter == HistoryFilterType.DAY) {
-            source = HistoryUtils.filterByDay(
-                    cachedTransactions,
-                    selectedDay,
-                    selectedMonth,
-                    selectedYear
-            );
-
-        } else if (currentFilter == HistoryFilterType.WEEK) {
-            source = HistoryUtils.filterByWeek(
-                    cachedTransactions,
-                    selectedWeek,
-                    selectedYear
-            );
-        }else if (currentFilter == HistoryFilterType.MONTH) {
-            source = HistoryUtils.filterByMonthYear(
-                    cachedTransactions,
-                    selectedMonth,
-                    selectedYear
-            );
-        } else {
-            source = HistoryUtils.filterByYear(
-                    cachedTransactions,
-                    selectedYear
-            );
-        }
-
-        // Apply search query
-        List<Transaction> filteredSource = new ArrayList<>();
-        if (searchQuery.isEmpty()) {
-            filteredSource.addAll(source);
-        } else {
-            for (Transaction t : source) {
-                if (t.label.toLowerCase().contains(searchQuery) ||
-                    t.category.toLowerCase().contains(searchQuery)) {
-                    filteredSource.add(t);
-                }
-            }
-        }
-
-        binding.recyclerView.setAdapter(
-                new HistoryAdapter(
-                        HistoryUtils.buildHistoryItems(
-                                filteredSource,
-                                currentFilter
-                        ),
-                        this::showTransactionOptions
-                )
-        );
-    }
-
     // -----------------------------
     // LONG PRESS MENU
     // -----------------------------
@@ -338,19 +336,47 @@ public class HistoryActivity extends AppCompatActivity {
         new AlertDialog.Builder(this)
                 .setTitle("Transaction Options")
                 .setItems(
-                        new String[]{"Edit", "Delete"},
+                        new String[]{"Edit", "Delete", "Repeat"},
                         (dialog, which) -> {
                             if (which == 0) showEditDialog(transaction);
-                            else confirmDelete(transaction);
+                            else if (which == 1) confirmDelete(transaction);
+                            else showRepeatDialog(transaction);
                         }
                 )
                 .show();
     }
 
+    // -----------------------------
+    // RECURRENCE
+    // Repeats from the entry's own date; missed occurrences are written at once
+    // -----------------------------
+    private void showRepeatDialog(Transaction transaction) {
+
+        RecurrenceFrequency[] frequencies = {
+                RecurrenceFrequency.WEEKLY, RecurrenceFrequency.MONTHLY, RecurrenceFrequency.YEARLY
+        };
+
+        new AlertDialog.Builder(this)
+                .setTitle("Repeat \"" + transaction.label + "\"")
+                .setItems(
+                        new String[]{"Every week", "Every month", "Every year"},
+                        (dialog, which) -> AppDatabase.databaseWriteExecutor.execute(() -> {
+                            RecurringScheduler.addRule(db, transaction, frequencies[which], 1);
+                            runOnUiThread(() -> Toast.makeText(
+                                    this, "Repeating entry saved", Toast.LENGTH_SHORT).show());
+                        })
+                )
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
     // -----------------------------
     // EDIT / DELETE (UNCHANGED)
     // -----------------------------
-    private void showEditDialog(Transaction transaction) {
+    private void showEditDialog(Transaction original) {
+
+        // Edit a copy so the list's current items keep their old values for diffing
+        Transaction transaction = original.copy();
 
         View view = getLayoutInflater().inflate(R.layout.dialog_edit_transaction, null);
 
@@ -358,7 +384,7 @@ public class HistoryActivity extends AppCompatActivity {
         EditText labelInput = view.findViewById(R.id.editLabel);
         Button dateButton = view.findViewById(R.id.dateButton);
 
-        amountInput.setText(String.valueOf(Math.abs(transaction.amount)));
+        amountInput.setText(Money.toPlainString(Math.abs(transaction.amount)));
         labelInput.setText(transaction.label);
 
         Calendar cal = Calendar.getInstance();
@@ -385,7 +411,7 @@ public class HistoryActivity extends AppCompatActivity {
                 .setView(view)
                 .setPositiveButton("Save", (d, w) -> {
                     try {
-                        double newAmount = Double.parseDouble(amountInput.getText().toString());
+                        long newAmount = Money.parse(amountInput.getText().toString());
                         String newLabel = labelInput.getText().toString();
 
                         if (transaction.amount < 0) {
@@ -394,13 +420,10 @@ public class HistoryActivity extends AppCompatActivity {
 
                         transaction.amount = newAmount;
                         transaction.label = newLabel;
-                        transaction.category = newLabel;
                         transaction.timestamp = cal.getTimeInMillis();
                         transaction.updatedAt = System.currentTimeMillis();
 
-                        AppDatabase.databaseWriteExecutor.execute(() ->
-                                db.transactionDao().update(transaction)
-                        );
+                        WriteBatcher.update(db, transaction, null);
 
                     } catch (Exception e) {
                         Toast.makeText(this, "Invalid input", Toast.LENGTH_SHORT).show();
@@ -416,17 +439,15 @@ public class HistoryActivity extends AppCompatActivity {
                 .setMessage("Are you sure you want to delete this entry?")
                 .setPositiveButton("Delete", (d, w) -> {
 
-                    AppDatabase.databaseWriteExecutor.execute(() -> {
-                        db.transactionDao().delete(transaction);
-
-                        runOnUiThread(() ->
-                                Toast.makeText(
-                                        HistoryActivity.this,
-                                        "Transaction deleted",
-                                        Toast.LENGTH_SHORT
-                                ).show()
-                        );
-                    });
+                    WriteBatcher.delete(db, transaction, () ->
+                            runOnUiThread(() ->
+                                    Toast.makeText(
+                                            HistoryActivity.this,
+                                            "Transaction deleted",
+                                            Toast.LENGTH_SHORT
+                                    ).show()
+                            )
+                    );
 
                 })
                 .setNegativeButton("Cancel", null)
@@ -451,7 +472,9 @@ public class HistoryActivity extends AppCompatActivity {
                     @Override public boolean onQueryTextSubmit(String q) { return false; }
                     @Override public boolean onQueryTextChange(String t) {
                         searchQuery = t.toLowerCase();
-                        refreshList();
+                        // Debounce: only the last keystroke in a burst hits the index
+                        searchHandler.removeCallbacks(searchRunnable);
+                        searchHandler.postDelayed(searchRunnable, SEARCH_DEBOUNCE_MS);
                         return true;
                     }
                 }
@@ -6,6 +6,10 @@ import android.view.LayoutInflater;
 import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AdapterListUpdateCallback;
+import androidx.recyclerview.widget.AsyncDifferConfig;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.voicefinance.databinding.ItemHistoryDateBinding;
@@ -19,20 +23,53 @@ public class HistoryAdapter
     private static final int TYPE_DATE = 0;
     private static final int TYPE_TRANSACTION = 1;
 
-    private final List<HistoryListItem> items;
+    private static final DiffUtil.ItemCallback<HistoryListItem> DIFF_CALLBACK =
+            new DiffUtil.ItemCallback<HistoryListItem>() {
+                @Override
+                public boolean areItemsTheSame(
+                        @NonNull HistoryListItem oldItem,
+                        @NonNull HistoryListItem newItem
+                ) {
+                    return oldItem.getClass() == newItem.getClass()
+                            && oldItem.getStableId() == newItem.getStableId();
+                }
+
+                @Override
+                public boolean areContentsTheSame(
+                        @NonNull HistoryListItem oldItem,
+                        @NonNull HistoryListItem newItem
+                ) {
+                    return oldItem.hasSameContent(newItem);
+                }
+            };
+
+    // Diffs on a background thread; only changed rows are rebound
+    private final AsyncListDiffer<HistoryListItem> differ;
     private final TransactionAdapter.OnTransactionLongClickListener listener;
 
     public HistoryAdapter(
-            List<HistoryListItem> items,
             TransactionAdapter.OnTransactionLongClickListener listener
     ) {
-        this.items = items;
+        this.differ = new AsyncListDiffer<>(
+                new AdapterListUpdateCallback(this),
+                new AsyncDifferConfig.Builder<>(DIFF_CALLBACK).build()
+        );
         this.listener = listener;
+        setHasStableIds(true);
+    }
+
+    public void submitList(List<HistoryListItem> items) {
+        differ.submitList(items);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return differ.getCurrentList().get(position).getStableId();
     }
 
     @Override
     public int getItemViewType(int position) {
-        return items.get(position) instanceof HistoryListItem.DateHeader
+        return differ.getCurrentList().get(position) instanceof HistoryListItem.DateHeader
                 ? TYPE_DATE
                 : TYPE_TRANSACTION;
     }
@@ -68,7 +105,7 @@ public class HistoryAdapter
             int position
     ) {
 
-        HistoryListItem item = items.get(position);
+        HistoryListItem item = differ.getCurrentList().get(position);
 
         if (holder instanceof DateViewHolder) {
 
@@ -81,8 +118,7 @@ public class HistoryAdapter
             ((DateViewHolder) holder).binding.totalText
                     .setText(
                             "Expenses: " +
-                                    CurrencyUtils.getCurrencyInstance()
-                                            .format(header.total)
+                                    CurrencyUtils.formatMinor(header.total)
                     );
 
         } else {
@@ -98,19 +134,17 @@ public class HistoryAdapter
             // --------------------------------
             // A.1 — Income / Expense styling
             // --------------------------------
-            double amount = t.amount;
+            long amount = t.amount;
 
-            String formatted =
-                    CurrencyUtils.getCurrencyInstance()
-                            .format(Math.abs(amount));
+            String formatted = CurrencyUtils.formatSignedMinor(amount);
 
             if (amount < 0) {
-                vh.binding.amount.setText("-" + formatted);
+                vh.binding.amount.setText(formatted);
                 vh.binding.amount.setTextColor(
                         Color.parseColor("#D32F2F") // red
                 );
             } else {
-                vh.binding.amount.setText("+" + formatted);
+                vh.binding.amount.setText(formatted);
                 vh.binding.amount.setTextColor(
                         Color.parseColor("#388E3C") // green
                 );
@@ -127,7 +161,7 @@ public class HistoryAdapter
 
     @Override
     public int getItemCount() {
-        return items.size();
+        return differ.getCurrentList().size();
     }
 
     static class DateViewHolder extends RecyclerView.ViewHolder {
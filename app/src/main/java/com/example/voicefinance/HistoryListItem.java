@@ -2,13 +2,32 @@ package com.example.voicefinance;
 
 public abstract class HistoryListItem {
 
+    // Stable RecyclerView id; headers use negative ids so they never clash with Transaction.id
+    public abstract long getStableId();
+
+    public abstract boolean hasSameContent(HistoryListItem other);
+
     public static class DateHeader extends HistoryListItem {
         public String dateText;   // "Dec 7 · Sunday"
-        public double total;
+        public long total;        // minor units
+        public int firstDay;      // local epoch day the bucket starts on
 
-        public DateHeader(String dateText, double total) {
+        public DateHeader(String dateText, long total, int firstDay) {
             this.dateText = dateText;
             this.total = total;
+            this.firstDay = firstDay;
+        }
+
+        // One header per bucket, and buckets of one list never share a first day
+        @Override
+        public long getStableId() {
+            return -1L - (firstDay & 0xffffffffL);
+        }
+
+        @Override
+        public boolean hasSameContent(HistoryListItem other) {
+            DateHeader o = (DateHeader) other;
+            return dateText.equals(o.dateText) && total == o.total;
         }
     }
 
@@ -18,5 +37,23 @@ public abstract class HistoryListItem {
         public TransactionItem(Transaction transaction) {
             this.transaction = transaction;
         }
+
+        @Override
+        public long getStableId() {
+            return transaction.id;
+        }
+
+        @Override
+        public boolean hasSameContent(HistoryListItem other) {
+            Transaction o = ((TransactionItem) other).transaction;
+            return transaction.amount == o.amount
+                    && transaction.timestamp == o.timestamp
+                    && equalsNullable(transaction.label, o.label)
+                    && transaction.categoryId == o.categoryId;
+        }
+
+        private static boolean equalsNullable(String a, String b) {
+            return a == null ? b == null : a.equals(b);
+        }
     }
 }
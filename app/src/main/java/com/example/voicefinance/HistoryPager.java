@@ -0,0 +1,256 @@
+package com.example.voicefinance;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.room.InvalidationTracker;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keyset-paginated view of one history window.
+ *
+ * At most MAX_PAGES pages are held; when the user scrolls further the
+ * opposite end is dropped and re-read by (timestamp, id) cursor on the way
+ * back, so memory stays bounded whatever the ledger size. All state is
+ * confined to a single background thread; results are posted to the main
+ * thread as ready-to-submit HistoryListItem lists. While searching, the
+ * header of each bucket totals the matching rows only.
+ */
+public class HistoryPager {
+
+    public interface Listener {
+        void onItems(List<HistoryListItem> items);
+    }
+
+    static final int PAGE_SIZE = 100;
+    static final int MAX_PAGES = 5;
+
+    private final AppDatabase db;
+    private final Listener listener;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private final AtomicBoolean nextQueued = new AtomicBoolean();
+    private final AtomicBoolean previousQueued = new AtomicBoolean();
+    private volatile boolean closed;
+
+    private final InvalidationTracker.Observer tableObserver =
+            new InvalidationTracker.Observer("transactions") {
+                @Override
+                public void onInvalidated(@NonNull Set<String> tables) {
+                    refresh();
+                }
+            };
+
+    // ---- executor-confined state ----
+    private long windowStart;
+    private long windowEnd;
+    private HistoryFilterType filterType = HistoryFilterType.DAY;
+    private String searchMatch;     // FTS expression, null when not searching
+
+    private final ArrayDeque<List<Transaction>> pages = new ArrayDeque<>();
+    private final Map<Long, Long> headerTotals = new HashMap<>();
+    private boolean hasMoreAbove;   // newer rows were dropped from the head
+    private boolean hasMoreBelow;   // older rows not loaded yet
+
+    public HistoryPager(AppDatabase db, Listener listener) {
+        this.db = db;
+        this.listener = listener;
+        db.getInvalidationTracker().addObserver(tableObserver);
+    }
+
+    public void close() {
+        closed = true;
+        db.getInvalidationTracker().removeObserver(tableObserver);
+        executor.shutdownNow();
+    }
+
+    // -----------------------------
+    // PUBLIC API (any thread)
+    // -----------------------------
+    public void reset(long start, long end, HistoryFilterType type) {
+        run(() -> {
+            windowStart = start;
+            windowEnd = end;
+            filterType = type;
+            headerTotals.clear();
+            reloadFromTop();
+        });
+    }
+
+    // Search runs through transactions_fts inside the same window
+    public void setSearchQuery(String query) {
+        String match = HistoryUtils.toFtsMatch(query);
+        run(() -> {
+            if (match == null ? searchMatch == null : match.equals(searchMatch)) return;
+            searchMatch = match;
+            headerTotals.clear();
+            reloadFromTop();
+        });
+    }
+
+    public void loadNext() {
+        if (!nextQueued.compareAndSet(false, true)) return;
+        run(() -> {
+            nextQueued.set(false);
+            if (!hasMoreBelow) return;
+            loadBelow();
+            publish();
+        });
+    }
+
+    public void loadPrevious() {
+        if (!previousQueued.compareAndSet(false, true)) return;
+        run(() -> {
+            previousQueued.set(false);
+            if (!hasMoreAbove) return;
+            loadAbove();
+            publish();
+        });
+    }
+
+    // Re-read the currently loaded range after a write
+    public void refresh() {
+        run(() -> {
+            int pageCount = Math.max(1, pages.size());
+
+            long cursorTimestamp = windowEnd;
+            int cursorId = Integer.MAX_VALUE;
+            if (hasMoreAbove && !pages.isEmpty()) {
+                // id + 1 so the first loaded row itself is included again
+                Transaction first = pages.peekFirst().get(0);
+                cursorTimestamp = first.timestamp;
+                cursorId = first.id + 1;
+            }
+
+            pages.clear();
+            headerTotals.clear();
+            hasMoreBelow = true;
+
+            for (int i = 0; i < pageCount && hasMoreBelow; i++) {
+                List<Transaction> page = pageBefore(cursorTimestamp, cursorId);
+                hasMoreBelow = page.size() == PAGE_SIZE;
+                if (page.isEmpty()) break;
+                pages.addLast(page);
+                Transaction last = page.get(page.size() - 1);
+                cursorTimestamp = last.timestamp;
+                cursorId = last.id;
+            }
+            publish();
+        });
+    }
+
+    // -----------------------------
+    // LOADING (executor thread)
+    // -----------------------------
+    private void reloadFromTop() {
+        pages.clear();
+        hasMoreAbove = false;
+        hasMoreBelow = true;
+        loadBelow();
+        publish();
+    }
+
+    private List<Transaction> pageBefore(long cursorTimestamp, int cursorId) {
+        TransactionDao dao = db.transactionDao();
+        return searchMatch == null
+                ? dao.getPageBefore(windowStart, windowEnd, cursorTimestamp, cursorId, PAGE_SIZE)
+                : dao.searchPageBefore(searchMatch, windowStart, windowEnd,
+                cursorTimestamp, cursorId, PAGE_SIZE);
+    }
+
+    private List<Transaction> pageAfter(long cursorTimestamp, int cursorId) {
+        TransactionDao dao = db.transactionDao();
+        return searchMatch == null
+                ? dao.getPageAfter(windowStart, windowEnd, cursorTimestamp, cursorId, PAGE_SIZE)
+                : dao.searchPageAfter(searchMatch, windowStart, windowEnd,
+                cursorTimestamp, cursorId, PAGE_SIZE);
+    }
+
+    private void loadBelow() {
+        long cursorTimestamp = windowEnd;
+        int cursorId = Integer.MAX_VALUE;
+        if (!pages.isEmpty()) {
+            List<Transaction> tail = pages.peekLast();
+            Transaction last = tail.get(tail.size() - 1);
+            cursorTimestamp = last.timestamp;
+            cursorId = last.id;
+        }
+
+        List<Transaction> page = pageBefore(cursorTimestamp, cursorId);
+        hasMoreBelow = page.size() == PAGE_SIZE;
+        if (page.isEmpty()) return;
+
+        pages.addLast(page);
+        if (pages.size() > MAX_PAGES) {
+            pages.removeFirst();
+            hasMoreAbove = true;
+        }
+    }
+
+    private void loadAbove() {
+        if (pages.isEmpty()) return;
+        Transaction first = pages.peekFirst().get(0);
+
+        List<Transaction> ascending = pageAfter(first.timestamp, first.id);
+        hasMoreAbove = ascending.size() == PAGE_SIZE;
+        if (ascending.isEmpty()) return;
+
+        List<Transaction> page = new ArrayList<>(ascending.size());
+        for (int i = ascending.size() - 1; i >= 0; i--) {
+            page.add(ascending.get(i));
+        }
+
+        pages.addFirst(page);
+        if (pages.size() > MAX_PAGES) {
+            pages.removeLast();
+            hasMoreBelow = true;
+        }
+    }
+
+    private void publish() {
+        List<HistoryListItem> items = new ArrayList<>();
+        int lastBucket = TimeBuckets.NONE;
+
+        for (List<Transaction> page : pages) {
+            lastBucket = HistoryUtils.appendHistoryItems(
+                    items, page, filterType, lastBucket, this::expenseBetween);
+        }
+
+        mainHandler.post(() -> {
+            if (!closed) listener.onItems(items);
+        });
+    }
+
+    private void run(Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException ignored) {
+            // closed while a load or invalidation was being scheduled
+        }
+    }
+
+    // Header totals are read once per bucket: from daily_rollup, or from the
+    // matching rows (whether loaded or not) while searching
+    private long expenseBetween(long start, long end) {
+        Long cached = headerTotals.get(start);
+        if (cached != null) return cached;
+
+        long total = searchMatch == null
+                ? db.rollupDao().getExpenseBetweenDays(DateKeys.dayKey(start), DateKeys.dayKey(end))
+                : db.transactionDao().searchExpenseBetween(searchMatch, start, end);
+        headerTotals.put(start, total);
+        return total;
+    }
+}
@@ -1,211 +1,104 @@
 package com.example.voicefinance;
 
-import java.text.SimpleDateFormat;
-import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.Date;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
 
 public class HistoryUtils {
 
-    private static final SimpleDateFormat DAY_FORMAT =
-            new SimpleDateFormat("MMM d · EEEE", Locale.getDefault());
-
-    private static final SimpleDateFormat MONTH_FORMAT =
-            new SimpleDateFormat("MMMM yyyy", Locale.getDefault());
-
-    private static final SimpleDateFormat YEAR_FORMAT =
-            new SimpleDateFormat("yyyy", Locale.getDefault());
-
-    private static final SimpleDateFormat WEEK_START_FORMAT =
-            new SimpleDateFormat("MMM d", Locale.getDefault());
-
-    private static final SimpleDateFormat WEEK_END_FORMAT =
-            new SimpleDateFormat("MMM d, yyyy", Locale.getDefault());
     // ------------------------------------------------
-    // BUILD HISTORY LIST (GROUPED)
+    // BUILD HISTORY LIST (PAGED)
+    // Rows arrive newest-first one page at a time; a header is
+    // inserted whenever the group changes. Header totals come from
+    // SQL for the whole bucket, not from the rows loaded so far.
     // ------------------------------------------------
-    public static List<HistoryListItem> buildHistoryItems(
-            List<Transaction> transactions,
-            HistoryFilterType filterType
-    ) {
-
-        List<HistoryListItem> result = new ArrayList<>();
-        Map<String, List<Transaction>> grouped = new LinkedHashMap<>();
-
-        for (Transaction t : transactions) {
+    public interface HeaderTotals {
+        long expenseBetween(long start, long end);
+    }
 
-            Date date = new Date(t.timestamp);
-            String key;
+    /**
+     * Appends one page to {@code out} and returns the bucket of the last
+     * group, to be passed back in for the next page (TimeBuckets.NONE
+     * for the first page).
+     */
+    public static int appendHistoryItems(
+            List<HistoryListItem> out,
+            List<Transaction> page,
+            HistoryFilterType filterType,
+            int lastBucket,
+            HeaderTotals totals
+    ) {
 
-            if (filterType == HistoryFilterType.YEAR) {
-                key = YEAR_FORMAT.format(date);
-            } else if (filterType == HistoryFilterType.MONTH) {
-                key = MONTH_FORMAT.format(date);
-            }else if (filterType == HistoryFilterType.WEEK) {
-                key = getWeekKey(date);
-            }else {
-                key = DAY_FORMAT.format(date);
-            }
+        TimeBuckets buckets = TimeBuckets.get();
 
-            grouped.computeIfAbsent(key, k -> new ArrayList<>())
-                    .add(t);
-        }
+        for (Transaction t : page) {
 
-        for (Map.Entry<String, List<Transaction>> entry : grouped.entrySet()) {
+            int bucket = buckets.bucketOf(t.timestamp, filterType);
 
-            double totalExpense = 0;
-            for (Transaction t : entry.getValue()) {
-                if (t.amount < 0) {
-                    totalExpense += t.amount;
-                }
+            if (bucket != lastBucket) {
+                out.add(
+                        new HistoryListItem.DateHeader(
+                                buckets.label(bucket, filterType),
+                                Math.abs(totals.expenseBetween(
+                                        buckets.startOf(bucket, filterType),
+                                        buckets.startOf(bucket + 1, filterType))),
+                                TimeBuckets.firstEpochDay(bucket, filterType)
+                        )
+                );
+                lastBucket = bucket;
             }
 
-            result.add(
-                    new HistoryListItem.DateHeader(
-                            entry.getKey(),
-                            Math.abs(totalExpense)
-                    )
-            );
-
-            for (Transaction t : entry.getValue()) {
-                result.add(new HistoryListItem.TransactionItem(t));
-            }
+            out.add(new HistoryListItem.TransactionItem(t));
         }
 
-        return result;
+        return lastBucket;
     }
 
     // ------------------------------------------------
-    // FILTER: DAY
+    // SEARCH: user text -> FTS prefix expression
+    // "Coffee sh" -> "coffee* sh*" (every word must prefix-match)
+    // Returns null when nothing searchable is left.
     // ------------------------------------------------
-    public static List<Transaction> filterByDay(
-            List<Transaction> transactions,
-            int day,
-            int month,
-            int year
-    ) {
+    public static String toFtsMatch(String query) {
+        if (query == null) return null;
 
-        List<Transaction> result = new ArrayList<>();
-        Calendar cal = Calendar.getInstance();
-
-        for (Transaction t : transactions) {
-            cal.setTimeInMillis(t.timestamp);
-
-            if (cal.get(Calendar.DAY_OF_MONTH) == day &&
-                    cal.get(Calendar.MONTH) == month &&
-                    cal.get(Calendar.YEAR) == year) {
-                result.add(t);
-            }
+        StringBuilder match = new StringBuilder();
+        for (String word : query.toLowerCase(Locale.getDefault()).split("\\s+")) {
+            String token = word.replaceAll("[^\\p{L}\\p{M}\\p{N}]", "");
+            if (token.isEmpty()) continue;
+            if (match.length() > 0) match.append(' ');
+            match.append(token).append('*');
         }
-        return result;
+        return match.length() == 0 ? null : match.toString();
     }
 
     // ------------------------------------------------
-    // FILTER: MONTH + YEAR
+    // PERIOD WINDOWS: [start, end) in epoch millis
+    // Used with HistoryPager so only the selected period is paged in
+    // instead of filtering the full ledger.
     // ------------------------------------------------
-    public static List<Transaction> filterByMonthYear(
-            List<Transaction> transactions,
-            int month,
-            int year
-    ) {
-
-        List<Transaction> result = new ArrayList<>();
-        Calendar cal = Calendar.getInstance();
-
-        for (Transaction t : transactions) {
-            cal.setTimeInMillis(t.timestamp);
-
-            if (cal.get(Calendar.MONTH) == month &&
-                    cal.get(Calendar.YEAR) == year) {
-                result.add(t);
-            }
-        }
-        return result;
+    public static long[] dayWindow(int day, int month, int year) {
+        int epochDay = TimeBuckets.epochDayOf(year, month, day);
+        return bucketRange(epochDay, HistoryFilterType.DAY);
     }
 
-    // ------------------------------------------------
-    // FILTER: YEAR
-    // ------------------------------------------------
-    public static List<Transaction> filterByYear(
-            List<Transaction> transactions,
-            int year
-    ) {
-
-        List<Transaction> result = new ArrayList<>();
-        Calendar cal = Calendar.getInstance();
-
-        for (Transaction t : transactions) {
-            cal.setTimeInMillis(t.timestamp);
-
-            if (cal.get(Calendar.YEAR) == year) {
-                result.add(t);
-            }
-        }
-        return result;
+    // ISO week: week 1 is the Monday-based week holding 4 January
+    public static long[] weekWindow(int weekNumber, int year) {
+        int firstWeek = TimeBuckets.weekOfEpochDay(TimeBuckets.epochDayOf(year, Calendar.JANUARY, 4));
+        return bucketRange(firstWeek + weekNumber - 1, HistoryFilterType.WEEK);
     }
 
-    // ------------------------------------------------
-    // FILTER: WEEK (ISO Week)
-    // ------------------------------------------------
-    public static List<Transaction> filterByWeek(
-            List<Transaction> transactions,
-            int weekNumber,
-            int year
-    ) {
-
-        List<Transaction> result = new ArrayList<>();
-        Calendar cal = Calendar.getInstance();
-        cal.setFirstDayOfWeek(Calendar.MONDAY);
-        cal.setMinimalDaysInFirstWeek(4);
-
-        // Get the start and end of the specified ISO week
-        Calendar weekStart = getWeekStart(weekNumber, year);
-        Calendar weekEnd = (Calendar) weekStart.clone();
-        weekEnd.add(Calendar.DAY_OF_YEAR, 6);
-
-        long weekStartMillis = weekStart.getTimeInMillis();
-        long weekEndMillis = weekEnd.getTimeInMillis();
-
-        for (Transaction t : transactions) {
-            if (t.timestamp >= weekStartMillis && t.timestamp <= weekEndMillis) {
-                result.add(t);
-            }
-        }
-        return result;
+    public static long[] monthWindow(int month, int year) {
+        return bucketRange(year * 12 + month, HistoryFilterType.MONTH);
     }
 
-    // ------------------------------------------------
-    // WEEK KEY FOR GROUPING (ISO Week)
-    // ------------------------------------------------
-    private static String getWeekKey(Date date) {
-        Calendar cal = Calendar.getInstance();
-        cal.setTime(date);
-        cal.setFirstDayOfWeek(Calendar.MONDAY);
-        cal.setMinimalDaysInFirstWeek(4);
-
-        // Get the start of the week (Monday)
-        int dayOfWeek = cal.get(Calendar.DAY_OF_WEEK);
-        int daysFromMonday = (dayOfWeek == Calendar.SUNDAY) ? 6 : dayOfWeek - Calendar.MONDAY;
-        cal.add(Calendar.DAY_OF_YEAR, -daysFromMonday);
-
-        Date weekStart = cal.getTime();
-        Calendar weekEnd = (Calendar) cal.clone();
-        weekEnd.add(Calendar.DAY_OF_YEAR, 6);
-        Date weekEndDate = weekEnd.getTime();
-
-        String startStr = WEEK_START_FORMAT.format(weekStart);
-        String endStr = WEEK_END_FORMAT.format(weekEndDate);
-
-        // Extract year from end date (handles year boundaries)
-        Calendar endCal = Calendar.getInstance();
-        endCal.setTime(weekEndDate);
-        int year = endCal.get(Calendar.YEAR);
+    public static long[] yearWindow(int year) {
+        return bucketRange(year, HistoryFilterType.YEAR);
+    }
 
-        return startStr + "–" + endStr;
+    private static long[] bucketRange(int bucket, HistoryFilterType type) {
+        TimeBuckets buckets = TimeBuckets.get();
+        return new long[]{buckets.startOf(bucket, type), buckets.startOf(bucket + 1, type)};
     }
 
     // ------------------------------------------------
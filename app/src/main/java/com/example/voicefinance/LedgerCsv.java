@@ -0,0 +1,88 @@
+package com.example.voicefinance;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal RFC 4180 CSV codec for the ledger export format.
+ * Pure Java so it can be exercised outside Android.
+ */
+public class LedgerCsv {
+
+    public static final String HEADER =
+            "label,amount,timestamp,category,type,created_at,updated_at";
+
+    public static final int COL_LABEL = 0;
+    public static final int COL_AMOUNT = 1;
+    public static final int COL_TIMESTAMP = 2;
+    public static final int COL_CATEGORY = 3;
+    public static final int COL_TYPE = 4;
+    public static final int COL_CREATED_AT = 5;
+    public static final int COL_UPDATED_AT = 6;
+
+    // Writes one field, quoting only when needed
+    public static void writeField(Writer out, String value) throws IOException {
+        if (value == null) return;
+
+        boolean quote = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                quote = true;
+                break;
+            }
+        }
+        if (!quote) {
+            out.write(value);
+            return;
+        }
+
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            // Line breaks are flattened so every record stays on one line
+            if (c == '\n' || c == '\r') c = ' ';
+            if (c == '"') out.write('"');
+            out.write(c);
+        }
+        out.write('"');
+    }
+
+    // Splits one record into fields; `fields` is cleared and reused
+    public static List<String> parseLine(String line, List<String> fields) {
+        fields.clear();
+        StringBuilder field = new StringBuilder();
+        boolean inQuotes = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (inQuotes) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        inQuotes = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                inQuotes = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    public static List<String> newFieldBuffer() {
+        return new ArrayList<>(7);
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.voicefinance;
+
+import android.database.Cursor;
+import android.util.JsonWriter;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Streams the ledger out in timestamp order.
+ * Rows are read straight from a Cursor and written through the given
+ * (buffered) Writer, so no List<Transaction> is ever built.
+ * Run off the main thread.
+ */
+public class LedgerExporter {
+
+    private static final int PROGRESS_EVERY = 1000;
+
+    public static long exportCsv(AppDatabase db, Writer out,
+                                 LedgerProgressListener listener) throws IOException {
+        long rows = 0;
+
+        try (Cursor c = db.transactionDao().getAllOrderedCursor()) {
+            Columns col = new Columns(c);
+
+            out.write(LedgerCsv.HEADER);
+            out.write('\n');
+
+            while (c.moveToNext()) {
+                LedgerCsv.writeField(out, c.getString(col.label));
+                out.write(',');
+                out.write(Money.toPlainString(c.getLong(col.amount)));
+                out.write(',');
+                out.write(Long.toString(c.getLong(col.timestamp)));
+                out.write(',');
+                LedgerCsv.writeField(out, c.getString(col.category));
+                out.write(',');
+                LedgerCsv.writeField(out, c.getString(col.type));
+                out.write(',');
+                out.write(Long.toString(c.getLong(col.createdAt)));
+                out.write(',');
+                if (!c.isNull(col.updatedAt)) {
+                    out.write(Long.toString(c.getLong(col.updatedAt)));
+                }
+                out.write('\n');
+
+                rows++;
+                if (listener != null && rows % PROGRESS_EVERY == 0) listener.onProgress(rows);
+            }
+        }
+
+        out.flush();
+        if (listener != null) listener.onProgress(rows);
+        return rows;
+    }
+
+    public static long exportJson(AppDatabase db, Writer out,
+                                  LedgerProgressListener listener) throws IOException {
+        long rows = 0;
+        JsonWriter json = new JsonWriter(out);
+
+        try (Cursor c = db.transactionDao().getAllOrderedCursor()) {
+            Columns col = new Columns(c);
+
+            json.beginArray();
+            while (c.moveToNext()) {
+                json.beginObject();
+                json.name("label").value(c.getString(col.label));
+                json.name("amount").value(Money.toDecimal(c.getLong(col.amount)));
+                json.name("timestamp").value(c.getLong(col.timestamp));
+                json.name("category").value(c.getString(col.category));
+                json.name("type").value(c.getString(col.type));
+                json.name("created_at").value(c.getLong(col.createdAt));
+                if (!c.isNull(col.updatedAt)) {
+                    json.name("updated_at").value(c.getLong(col.updatedAt));
+                }
+                json.endObject();
+
+                rows++;
+                if (listener != null && rows % PROGRESS_EVERY == 0) listener.onProgress(rows);
+            }
+            json.endArray();
+        }
+
+        json.flush();
+        if (listener != null) listener.onProgress(rows);
+        return rows;
+    }
+
+    // Column indexes resolved once per export
+    private static final class Columns {
+        final int label;
+        final int amount;
+        final int timestamp;
+        final int category;
+        final int type;
+        final int createdAt;
+        final int updatedAt;
+
+        Columns(Cursor c) {
+            label = c.getColumnIndexOrThrow("label");
+            amount = c.getColumnIndexOrThrow("amount");
+            timestamp = c.getColumnIndexOrThrow("timestamp");
+            category = c.getColumnIndexOrThrow("category");
+            type = c.getColumnIndexOrThrow("type");
+            createdAt = c.getColumnIndexOrThrow("created_at");
+            updatedAt = c.getColumnIndexOrThrow("updated_at");
+        }
+    }
+}
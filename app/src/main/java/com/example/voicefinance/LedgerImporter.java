@@ -0,0 +1,167 @@
+package com.example.voicefinance;
+
+import android.util.JsonReader;
+import android.util.JsonToken;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams transactions in from CSV (LedgerCsv format) or JSON
+ * (array of objects as written by LedgerExporter).
+ * Input is parsed record by record and handed to LedgerWriter.insertAll
+ * in fixed-size batches, each its own transaction, so memory stays
+ * constant whatever the file size. Run on AppDatabase.databaseWriteExecutor.
+ *
+ * A bad record stops the import with an IOException. The batches before it
+ * are already committed and stay, so a failed import is partial; the
+ * listener has been told how many rows that is.
+ */
+public class LedgerImporter {
+
+    static final int BATCH_SIZE = 1000;
+
+    public static long importCsv(AppDatabase db, Reader in,
+                                 LedgerProgressListener listener) throws IOException {
+        BufferedReader reader = in instanceof BufferedReader
+                ? (BufferedReader) in
+                : new BufferedReader(in);
+
+        List<Transaction> batch = new ArrayList<>(BATCH_SIZE);
+        List<String> fields = LedgerCsv.newFieldBuffer();
+        long rows = 0;
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            if (line.isEmpty() || line.startsWith(LedgerCsv.HEADER)) continue;
+
+            LedgerCsv.parseLine(line, fields);
+            if (fields.size() <= LedgerCsv.COL_TYPE) {
+                throw new IOException("Malformed CSV record: " + line);
+            }
+
+            Transaction t = newTransaction(
+                    fields.get(LedgerCsv.COL_LABEL),
+                    parseAmount(fields.get(LedgerCsv.COL_AMOUNT), line),
+                    parseLong(fields.get(LedgerCsv.COL_TIMESTAMP), line),
+                    fields.get(LedgerCsv.COL_CATEGORY),
+                    fields.get(LedgerCsv.COL_TYPE),
+                    line
+            );
+            if (fields.size() > LedgerCsv.COL_CREATED_AT
+                    && !fields.get(LedgerCsv.COL_CREATED_AT).isEmpty()) {
+                t.createdAt = parseLong(fields.get(LedgerCsv.COL_CREATED_AT), line);
+            }
+            if (fields.size() > LedgerCsv.COL_UPDATED_AT
+                    && !fields.get(LedgerCsv.COL_UPDATED_AT).isEmpty()) {
+                t.updatedAt = parseLong(fields.get(LedgerCsv.COL_UPDATED_AT), line);
+            }
+
+            batch.add(t);
+            rows++;
+            if (batch.size() == BATCH_SIZE) flush(db, batch, rows, listener);
+        }
+
+        flush(db, batch, rows, listener);
+        return rows;
+    }
+
+    public static long importJson(AppDatabase db, Reader in,
+                                  LedgerProgressListener listener) throws IOException {
+        List<Transaction> batch = new ArrayList<>(BATCH_SIZE);
+        long rows = 0;
+
+        JsonReader json = new JsonReader(in);
+        json.beginArray();
+        while (json.hasNext()) {
+            String label = null;
+            String category = null;
+            String type = null;
+            long amount = 0;
+            long timestamp = 0;
+            Long createdAt = null;
+            Long updatedAt = null;
+
+            json.beginObject();
+            while (json.hasNext()) {
+                String name = json.nextName();
+                if (json.peek() == JsonToken.NULL) {
+                    json.skipValue();
+                    continue;
+                }
+                switch (name) {
+                    case "label": label = json.nextString(); break;
+                    // nextString() returns the number's literal text, so no double rounding
+                    case "amount": amount = parseAmount(json.nextString(), json.toString()); break;
+                    case "timestamp": timestamp = json.nextLong(); break;
+                    case "category": category = json.nextString(); break;
+                    case "type": type = json.nextString(); break;
+                    case "created_at": createdAt = json.nextLong(); break;
+                    case "updated_at": updatedAt = json.nextLong(); break;
+                    default: json.skipValue(); break;
+                }
+            }
+            json.endObject();
+
+            Transaction t = newTransaction(label, amount, timestamp, category, type, json.toString());
+            if (createdAt != null) t.createdAt = createdAt;
+            t.updatedAt = updatedAt;
+
+            batch.add(t);
+            rows++;
+            if (batch.size() == BATCH_SIZE) flush(db, batch, rows, listener);
+        }
+        json.endArray();
+
+        flush(db, batch, rows, listener);
+        return rows;
+    }
+
+    private static Transaction newTransaction(String label, long amount, long timestamp,
+                                              String category, String type,
+                                              String record) throws IOException {
+        TransactionType parsedType = type == null || type.isEmpty()
+                ? (amount < 0 ? TransactionType.EXPENSE : TransactionType.INCOME)
+                : parseType(type, record);
+        // An empty category is stored as exported, so export -> import round-trips
+        return new Transaction(label, amount, timestamp,
+                category == null ? "" : category, parsedType);
+    }
+
+    private static TransactionType parseType(String value, String record) throws IOException {
+        try {
+            return TransactionType.valueOf(value);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Bad type in record: " + record, e);
+        }
+    }
+
+    private static void flush(AppDatabase db, List<Transaction> batch, long rows,
+                              LedgerProgressListener listener) {
+        if (batch.isEmpty()) return;
+        LedgerWriter.insertAll(db, batch);
+        WalCheckpointScheduler.noteCommit(db);
+        batch.clear();
+        if (listener != null) listener.onProgress(rows);
+    }
+
+    // Files carry decimal major units ("1250.5", older exports "1.0E7")
+    private static long parseAmount(String value, String record) throws IOException {
+        try {
+            return Money.parse(value);
+        } catch (NumberFormatException e) {
+            throw new IOException("Bad amount in record: " + record, e);
+        }
+    }
+
+    private static long parseLong(String value, String line) throws IOException {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IOException("Bad number in CSV record: " + line, e);
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.voicefinance;
+
+// Reports rows processed so far by LedgerExporter / LedgerImporter
+public interface LedgerProgressListener {
+    void onProgress(long rows);
+}
@@ -0,0 +1,116 @@
+package com.example.voicefinance;
+
+import android.content.Context;
+
+import androidx.lifecycle.LiveData;
+
+import java.util.List;
+
+/**
+ * Windowed ledger reads for the statistics and category screens, served
+ * from a QueryCache.
+ *
+ * Each query is cached under its name, the [start, end) time window its
+ * rows come from and, for drill-downs, its category. LedgerWriter reports
+ * every written row here, and only the cached results whose window (and
+ * category) the row falls in are reloaded. The cache drops unobserved
+ * results when the system trims memory.
+ */
+public class LedgerRepository {
+
+    private static final int MAX_CACHED_RESULTS = 24;
+
+    private static volatile LedgerRepository instance;
+
+    private final AppDatabase db;
+    private final QueryCache cache = new QueryCache(MAX_CACHED_RESULTS);
+
+    public static LedgerRepository get(Context context) {
+        if (instance == null) {
+            synchronized (LedgerRepository.class) {
+                if (instance == null) {
+                    instance = new LedgerRepository(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    private LedgerRepository(Context app) {
+        db = AppDatabase.getDatabase(app);
+        app.registerComponentCallbacks(cache);
+    }
+
+    // ------------------------------------------------
+    // WRITE NOTIFICATIONS (writer thread, from LedgerWriter)
+    // Nothing is cached before the first get(), so there is nothing to track
+    // ------------------------------------------------
+
+    // Inside the write transaction: old and new versions of the written rows
+    static void noteWritten(List<Transaction> rows) {
+        LedgerRepository r = instance;
+        if (r != null) r.cache.noteWritten(rows);
+    }
+
+    // After the outermost transaction committed
+    static void publishWrites() {
+        LedgerRepository r = instance;
+        if (r != null) r.cache.publish();
+    }
+
+    static void invalidateAll() {
+        LedgerRepository r = instance;
+        if (r != null) r.cache.invalidateAll();
+    }
+
+    // ------------------------------------------------
+    // STATISTICS (daily_rollup from since's day onwards)
+    // ------------------------------------------------
+
+    public LiveData<List<TransactionDao.CategoryTotal>> getExpenseTotalsByCategorySince(long since) {
+        return cache.get("expenseTotalsByCategory", startOfDay(since), Long.MAX_VALUE, null,
+                () -> db.transactionDao().getExpenseTotalsByCategorySince(since));
+    }
+
+    public LiveData<List<TransactionDao.TrendPoint>> getDailyTrends(long since) {
+        return cache.get("dailyTrends", startOfDay(since), Long.MAX_VALUE, null,
+                () -> db.transactionDao().getDailyTrends(since));
+    }
+
+    public LiveData<List<TransactionDao.TrendPoint>> getMonthlyTrends(long since) {
+        return cache.get("monthlyTrends", startOfDay(since), Long.MAX_VALUE, null,
+                () -> db.transactionDao().getMonthlyTrends(since));
+    }
+
+    public LiveData<List<TransactionDao.TrendPoint>> getYearlyTrends(long since) {
+        return cache.get("yearlyTrends", startOfDay(since), Long.MAX_VALUE, null,
+                () -> db.transactionDao().getYearlyTrends(since));
+    }
+
+    // ------------------------------------------------
+    // CATEGORY DRILL-DOWN
+    // ------------------------------------------------
+
+    public LiveData<List<Transaction>> getTransactionsByCategory(String category) {
+        return cache.get("byCategory", Long.MIN_VALUE, Long.MAX_VALUE, category,
+                () -> db.transactionDao().getTransactionsByCategory(category));
+    }
+
+    // year "2025", month "01".."12"
+    public LiveData<List<Transaction>> getTransactionsByCategoryAndMonth(
+            String category, String year, String month) {
+        TimeBuckets buckets = TimeBuckets.get();
+        long first = buckets.startOfEpochDay(TimeBuckets.epochDayOf(
+                Integer.parseInt(year), Integer.parseInt(month) - 1, 1));
+        long[] window = buckets.window(first, HistoryFilterType.MONTH);
+
+        return cache.get("byCategoryAndMonth", window[0], window[1], category,
+                () -> db.transactionDao().getTransactionsByCategoryAndMonth(category, year, month));
+    }
+
+    // The rollup queries compare day keys, so their window starts at midnight
+    private static long startOfDay(long millis) {
+        TimeBuckets buckets = TimeBuckets.get();
+        return buckets.startOfEpochDay(buckets.epochDay(millis));
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.voicefinance;
+
+import androidx.room.Entity;
+import androidx.room.PrimaryKey;
+
+/**
+ * Single-row running totals for the dashboard.
+ * Updated by LedgerWriter in the same transaction as each write.
+ */
+@Entity(tableName = "ledger_summary")
+public class LedgerSummary {
+
+    public static final int SINGLETON_ID = 1;
+
+    @PrimaryKey
+    public int id = SINGLETON_ID;
+
+    // Minor units
+    public long balance;
+    public long income;
+    public long expense;
+    public int count;
+}
@@ -0,0 +1,273 @@
+package com.example.voicefinance;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Single write path for transactions.
+ * Every insert / update / delete runs in one database transaction
+ * together with its daily_rollup / ledger_summary / budget spent
+ * bookkeeping. Call from
+ * AppDatabase.databaseWriteExecutor, never from the main thread.
+ *
+ * The list variants write the whole list in one transaction and fold the
+ * aggregate bookkeeping into one UPDATE per touched rollup row, so bulk
+ * imports cost one commit instead of one per row.
+ *
+ * Each write reports its rows to CategoryIndex so category inference
+ * keeps learning without rescanning the table, and to LedgerRepository so
+ * only the cached results covering their timestamps are reloaded; both
+ * take effect once the outermost transaction commits. Budget spent amounts move in the same transaction, and
+ * BudgetAlerts is told about every threshold they cross.
+ */
+public class LedgerWriter {
+
+    // SQLite's default bound-variable limit is 999 on older devices
+    private static final int MAX_IDS_PER_QUERY = 500;
+
+    public static void insert(AppDatabase db, Transaction t) {
+        insertAll(db, Collections.singletonList(t));
+    }
+
+    public static void update(AppDatabase db, Transaction t) {
+        updateAll(db, Collections.singletonList(t));
+    }
+
+    public static void delete(AppDatabase db, Transaction t) {
+        deleteAll(db, Collections.singletonList(t));
+    }
+
+    public static void insertAll(AppDatabase db, List<Transaction> transactions) {
+        if (transactions.isEmpty()) return;
+        for (Transaction t : transactions) t.refreshDateKeys();
+
+        inTransaction(db, () -> {
+            bindCategories(db, transactions);
+            db.transactionDao().insertAll(transactions);
+
+            AggregateDelta delta = new AggregateDelta(db);
+            for (Transaction t : transactions) delta.add(t, 1);
+            delta.applyTo();
+            LedgerRepository.noteWritten(transactions);
+            CategoryIndex.learn(transactions);
+        });
+    }
+
+    public static void updateAll(AppDatabase db, List<Transaction> transactions) {
+        if (transactions.isEmpty()) return;
+        for (Transaction t : transactions) t.refreshDateKeys();
+
+        List<Transaction> replaced = new ArrayList<>(transactions.size());
+        List<Transaction> applied = new ArrayList<>(transactions.size());
+        inTransaction(db, () -> {
+            bindCategories(db, transactions);
+            // Callers may have edited the objects in place, so read the stored rows
+            Map<Integer, Transaction> stored = loadStored(db, transactions);
+
+            AggregateDelta delta = new AggregateDelta(db);
+            for (Transaction t : transactions) {
+                Transaction old = stored.get(t.id);
+                if (old == null) continue;  // deleted meanwhile; the UPDATE is a no-op
+                delta.add(old, -1);
+                delta.add(t, 1);
+                replaced.add(old);
+                applied.add(t);
+            }
+
+            db.transactionDao().updateAll(transactions);
+            delta.applyTo();
+            LedgerRepository.noteWritten(replaced);
+            LedgerRepository.noteWritten(applied);
+            CategoryIndex.forget(replaced);
+            CategoryIndex.learn(applied);
+        });
+    }
+
+    public static void deleteAll(AppDatabase db, List<Transaction> transactions) {
+        if (transactions.isEmpty()) return;
+
+        List<Transaction> stored = new ArrayList<>();
+        inTransaction(db, () -> {
+            stored.addAll(loadStored(db, transactions).values());
+            if (stored.isEmpty()) return;
+
+            AggregateDelta delta = new AggregateDelta(db);
+            for (Transaction old : stored) delta.add(old, -1);
+
+            db.transactionDao().deleteAll(stored);
+            delta.applyTo();
+            LedgerRepository.noteWritten(stored);
+            CategoryIndex.forget(stored);
+        });
+    }
+
+    // Recompute daily_rollup from scratch, e.g. after a suspected drift
+    public static void rebuildRollups(AppDatabase db) {
+        db.runInTransaction(() -> {
+            db.rollupDao().clear();
+            db.rollupDao().fillFromTransactions();
+            db.rollupDao().clearSummary();
+            db.rollupDao().fillSummaryFromTransactions();
+            db.budgetDao().recomputeSpent();
+        });
+        Budgets.invalidate();
+        LedgerRepository.invalidateAll();
+    }
+
+    // Only the outermost call publishes or discards the derived state below, so
+    // callers can wrap several writes in one (RecurringScheduler does)
+    static void inTransaction(AppDatabase db, Runnable body) {
+        try {
+            db.runInTransaction(body);
+        } catch (RuntimeException e) {
+            rolledBack();
+            throw e;
+        }
+        if (!db.inTransaction()) committed();
+    }
+
+    // ------------------------------------------------
+    // COMMIT / ROLLBACK
+    // State produced inside a write only takes effect once the outermost
+    // transaction commits; callers that open their own transaction without
+    // inTransaction (WriteBatcher) call these themselves
+    // ------------------------------------------------
+
+    // Reload the cached results, index the committed rows and raise their budget alerts
+    static void committed() {
+        LedgerRepository.publishWrites();
+        CategoryIndex.committed();
+        BudgetAlerts.committed();
+    }
+
+    // Categories may have handed out ids and Budgets mirrored spent amounts
+    static void rolledBack() {
+        CategoryIndex.rolledBack();
+        Categories.invalidate();
+        Budgets.invalidate();
+        BudgetAlerts.rolledBack();
+    }
+
+    // Name -> categoryId for rows that carry a name, id -> name for rows read back
+    private static void bindCategories(AppDatabase db, List<Transaction> transactions) {
+        for (Transaction t : transactions) {
+            if (t.category != null || t.categoryId == 0) {
+                t.categoryId = Categories.idFor(db, t.category);
+            }
+            if (t.category == null) t.category = Categories.nameOf(db, t.categoryId);
+        }
+    }
+
+    // Stored versions of the given rows, category names filled in
+    private static Map<Integer, Transaction> loadStored(AppDatabase db, List<Transaction> transactions) {
+        Map<Integer, Transaction> stored = new HashMap<>();
+        List<Integer> ids = new ArrayList<>(Math.min(transactions.size(), MAX_IDS_PER_QUERY));
+
+        for (Transaction t : transactions) {
+            ids.add(t.id);
+            if (ids.size() == MAX_IDS_PER_QUERY) {
+                for (Transaction old : db.transactionDao().getByIds(ids)) stored.put(old.id, old);
+                ids.clear();
+            }
+        }
+        if (!ids.isEmpty()) {
+            for (Transaction old : db.transactionDao().getByIds(ids)) stored.put(old.id, old);
+        }
+        for (Transaction old : stored.values()) old.category = Categories.nameOf(db, old.categoryId);
+        return stored;
+    }
+
+    // ------------------------------------------------
+    // AGGREGATE BOOKKEEPING
+    // Deltas are summed in memory per rollup row / budget and written once
+    // ------------------------------------------------
+    private static final class AggregateDelta {
+
+        private final AppDatabase db;
+        private final Map<Long, RollupDelta> rollups = new HashMap<>();
+        // Keyed by the Budgets instance; only budgets covering a written expense appear
+        private final Map<Budget, long[]> budgets = new HashMap<>();
+        private long balance;
+        private long income;
+        private long expense;
+        private int count;
+
+        AggregateDelta(AppDatabase db) {
+            this.db = db;
+        }
+
+        // direction: +1 to add the row, -1 to remove it
+        void add(Transaction t, int direction) {
+            int sign = t.amount < 0 ? DailyRollup.SIGN_EXPENSE : DailyRollup.SIGN_INCOME;
+            long amount = direction * t.amount;
+
+            // day_key (27 bits), sign, category_id packed into one key
+            long key = ((long) t.categoryId << 32) | ((long) t.dayKey << 1) | (sign > 0 ? 1 : 0);
+            RollupDelta r = rollups.get(key);
+            if (r == null) {
+                r = new RollupDelta(t.dayKey, t.categoryId, sign);
+                rollups.put(key, r);
+            }
+            r.total += amount;
+            r.count += direction;
+            r.removed |= direction < 0;
+
+            balance += amount;
+            if (t.amount > 0) income += amount;
+            else expense += amount;
+            count += direction;
+
+            if (t.amount < 0) {
+                for (Budget b : Budgets.covering(db, t)) {
+                    long[] spent = budgets.get(b);
+                    if (spent == null) {
+                        spent = new long[1];
+                        budgets.put(b, spent);
+                    }
+                    spent[0] -= amount;
+                }
+            }
+        }
+
+        void applyTo() {
+            RollupDao dao = db.rollupDao();
+            for (RollupDelta r : rollups.values()) {
+                dao.ensureRow(r.dayKey, r.categoryId, r.sign);
+                dao.applyDelta(r.dayKey, r.categoryId, r.sign, r.total, r.count);
+                if (r.removed) {
+                    dao.pruneIfEmpty(r.dayKey, r.categoryId, r.sign);
+                }
+            }
+
+            dao.ensureSummary();
+            dao.applySummaryDelta(balance, income, expense, count);
+
+            for (Map.Entry<Budget, long[]> e : budgets.entrySet()) {
+                long delta = e.getValue()[0];
+                if (delta == 0) continue;
+                Budget b = e.getKey();
+                db.budgetDao().addSpent(b.id, delta);
+                BudgetAlerts.noteSpent(db, b, b.spent, b.spent + delta);
+                Budgets.addSpent(b, delta);
+            }
+        }
+    }
+
+    private static final class RollupDelta {
+        final int dayKey;
+        final int categoryId;
+        final int sign;
+        long total;
+        int count;
+        boolean removed;
+
+        RollupDelta(int dayKey, int categoryId, int sign) {
+            this.dayKey = dayKey;
+            this.categoryId = categoryId;
+            this.sign = sign;
+        }
+    }
+}
@@ -6,6 +6,8 @@ import android.Manifest;
 import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.content.res.Resources;
+import android.net.Uri;
+import android.os.Build;
 import android.os.Bundle;
 import android.speech.RecognizerIntent;
 import android.text.TextUtils;
@@ -26,12 +28,20 @@ import androidx.core.content.ContextCompat;
 
 import com.example.voicefinance.databinding.ActivityMainBinding;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.List;
 import java.util.Locale;
 import java.util.Random;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class MainActivity extends AppCompatActivity {
 
@@ -39,7 +49,11 @@ public class MainActivity extends AppCompatActivity {
     private AppDatabase db;
 
     private ActivityResultLauncher<String> requestPermissionLauncher;
+    private ActivityResultLauncher<String> notificationPermissionLauncher;
     private ActivityResultLauncher<Intent> speechRecognizerLauncher;
+    private ActivityResultLauncher<String> exportCsvLauncher;
+    private ActivityResultLauncher<String> exportJsonLauncher;
+    private ActivityResultLauncher<String[]> importLauncher;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -51,6 +65,8 @@ public class MainActivity extends AppCompatActivity {
         setSupportActionBar(binding.toolbar);
 
         db = AppDatabase.getDatabase(this);
+        // Writes whatever rent / salary / subscription came due while the app was closed
+        RecurringScheduler.schedule(db);
 
         registerLaunchers();
         setupListeners();
@@ -84,28 +100,44 @@ public class MainActivity extends AppCompatActivity {
             return true;
         }
 
+        if (item.getItemId() == R.id.action_recurring) {
+            showRecurringDialog();
+            return true;
+        }
+
+        if (item.getItemId() == R.id.action_export_csv) {
+            exportCsvLauncher.launch("vocaledger.csv");
+            return true;
+        }
+
+        if (item.getItemId() == R.id.action_export_json) {
+            exportJsonLauncher.launch("vocaledger.json");
+            return true;
+        }
+
+        if (item.getItemId() == R.id.action_import) {
+            importLauncher.launch(new String[]{"text/*", "application/json"});
+            return true;
+        }
+
         return super.onOptionsItemSelected(item);
     }
 
     // ----------------------------- DASHBOARD ------------------------------
 
     private void observeDashboard() {
-        db.transactionDao().getAllTransactionsOrdered()
-                .observe(this, transactions -> {
-
-                    double balance = 0;
-                    double income = 0;
-                    double expense = 0;
-
-                    for (Transaction t : transactions) {
-                        balance += t.amount;
-                        if (t.amount > 0) income += t.amount;
-                        else expense += t.amount;
-                    }
-
-                    binding.balanceAmount.setText(CurrencyUtils.getCurrencyInstance().format(balance));
-                    binding.incomeAmount.setText(CurrencyUtils.getCurrencyInstance().format(income));
-                    binding.expenseAmount.setText(CurrencyUtils.getCurrencyInstance().format(expense));
+        // Single-row running totals maintained by LedgerWriter
+        db.rollupDao().getSummary()
+                .observe(this, summary -> {
+
+                    long balance = summary == null ? 0 : summary.balance;
+                    long income = summary == null ? 0 : summary.income;
+                    long expense = summary == null ? 0 : summary.expense;
+
+                    binding.balanceAmount.setText(CurrencyUtils.formatMinor(balance));
+                    binding.incomeAmount.setText(CurrencyUtils.formatMinor(income));
+                    binding.expenseAmount.setText(CurrencyUtils.formatMinor(expense));
+                    StartupTrace.onDashboardValue(this);
                 });
     }
 
@@ -120,6 +152,13 @@ public class MainActivity extends AppCompatActivity {
                             else toast("Microphone permission required");
                         });
 
+        // Budget alerts still show on the main screen when notifications are refused
+        notificationPermissionLauncher =
+                registerForActivityResult(new ActivityResultContracts.RequestPermission(),
+                        granted -> {
+                            if (!granted) toast("Budget alerts will not be notified");
+                        });
+
         speechRecognizerLauncher = 
                 registerForActivityResult(new ActivityResultContracts.StartActivityForResult(),
                         result -> {
@@ -131,6 +170,80 @@ public class MainActivity extends AppCompatActivity {
                                 }
                             }
                         });
+
+        exportCsvLauncher =
+                registerForActivityResult(new ActivityResultContracts.CreateDocument("text/csv"),
+                        uri -> {
+                            if (uri != null) exportLedger(uri, false);
+                        });
+
+        exportJsonLauncher =
+                registerForActivityResult(new ActivityResultContracts.CreateDocument("application/json"),
+                        uri -> {
+                            if (uri != null) exportLedger(uri, true);
+                        });
+
+        importLauncher =
+                registerForActivityResult(new ActivityResultContracts.OpenDocument(),
+                        uri -> {
+                            if (uri != null) importLedger(uri);
+                        });
+    }
+
+    // --------------------------- IMPORT / EXPORT ---------------------------
+
+    private void exportLedger(Uri uri, boolean json) {
+        AppDatabase.databaseReadExecutor.execute(() -> {
+            try (OutputStream os = getContentResolver().openOutputStream(uri);
+                 Writer out = new BufferedWriter(
+                         new OutputStreamWriter(os, StandardCharsets.UTF_8))) {
+
+                long rows = json
+                        ? LedgerExporter.exportJson(db, out, null)
+                        : LedgerExporter.exportCsv(db, out, null);
+                runOnUiThread(() -> toast("Exported " + rows + " transactions"));
+
+            } catch (Exception e) {
+                runOnUiThread(() -> toast("Export failed"));
+            }
+        });
+    }
+
+    private void importLedger(Uri uri) {
+        String type = getContentResolver().getType(uri);
+        boolean json = (type != null && type.contains("json"))
+                || uri.toString().toLowerCase(Locale.ROOT).endsWith(".json");
+
+        AppDatabase.databaseWriteExecutor.execute(() -> {
+            long[] saved = {0};     // rows in committed batches, writer thread only
+            try (InputStream is = getContentResolver().openInputStream(uri);
+                 Reader in = new BufferedReader(
+                         new InputStreamReader(is, StandardCharsets.UTF_8))) {
+
+                LedgerProgressListener progress = rows -> {
+                    saved[0] = rows;
+                    runOnUiThread(() -> binding.toolbar.setSubtitle(
+                            "Importing… " + rows));
+                };
+
+                long rows = json
+                        ? LedgerImporter.importJson(db, in, progress)
+                        : LedgerImporter.importCsv(db, in, progress);
+                runOnUiThread(() -> {
+                    binding.toolbar.setSubtitle(null);
+                    toast("Imported " + rows + " transactions");
+                });
+
+            } catch (Exception e) {
+                // Committed batches stay; say how far the import got
+                long rows = saved[0];
+                runOnUiThread(() -> {
+                    binding.toolbar.setSubtitle(null);
+                    toast(rows == 0 ? "Import failed"
+                            : "Import stopped after " + rows + " transactions");
+                });
+            }
+        });
     }
 
     private void startSpeech() {
@@ -142,23 +255,22 @@ public class MainActivity extends AppCompatActivity {
 
     private void parseSpeech(String text) {
 
-        text = text.toLowerCase(Locale.getDefault());
-        boolean isExpense = !(text.contains("income") || text.contains("got"));
-
-        Matcher m = Pattern.compile("(\\d+(\\.\\d+)?)").matcher(text);
-        if (!m.find()) {
+        List<SpeechParser.Result> results = SpeechParser.parse(text);
+        if (results.isEmpty()) {
             toast("Amount not found");
             return;
         }
 
-        double amount = Double.parseDouble(m.group(1));
-        if (isExpense) amount = -amount;
-
-        String label = text.replace(m.group(1), "").replaceAll("[^a-z ]", "").trim();
-        if (label.isEmpty()) label = isExpense ? "Expense" : "Income";
+        // "lunch 250 and bus 40" -> two rows, one commit
+        long now = System.currentTimeMillis();
+        List<Transaction> rows = new ArrayList<>(results.size());
+        for (SpeechParser.Result r : results) {
+            rows.add(new Transaction(r.label, r.amount, now, CategoryIndex.resolve(r.label),
+                    r.isExpense ? TransactionType.EXPENSE : TransactionType.INCOME));
+        }
 
-        save(new Transaction(label, amount, System.currentTimeMillis(), label,
-                isExpense ? TransactionType.EXPENSE : TransactionType.INCOME));
+        String msg = rows.size() == 1 ? "Saved" : "Saved " + rows.size() + " entries";
+        WriteBatcher.insertAll(db, rows, () -> runOnUiThread(() -> toast(msg)));
     }
 
     // ---------------------------- MANUAL ----------------------------------
@@ -197,12 +309,18 @@ public class MainActivity extends AppCompatActivity {
             return;
         }
 
-        double amount = Double.parseDouble(a);
+        long amount;
+        try {
+            amount = Money.parse(a);
+        } catch (NumberFormatException e) {
+            toast("Invalid amount");
+            return;
+        }
         if (isExpense) amount = -amount;
 
         if (TextUtils.isEmpty(l)) l = isExpense ? "Expense" : "Income";
 
-        save(new Transaction(l, amount, System.currentTimeMillis(), l,
+        save(new Transaction(l, amount, System.currentTimeMillis(), CategoryIndex.resolve(l),
                 isExpense ? TransactionType.EXPENSE : TransactionType.INCOME));
 
         binding.editTextAmount.setText("");
@@ -210,41 +328,36 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void save(Transaction t) {
-        AppDatabase.databaseWriteExecutor.execute(() -> {
-            db.transactionDao().insert(t);
-            runOnUiThread(() -> toast("Saved"));
-        });
+        WriteBatcher.insert(db, t, () -> runOnUiThread(() -> toast("Saved")));
     }
 
     // ----------------------------- BUDGET ---------------------------------
 
     private void observeBudget() {
 
-        BudgetHelper.getActiveBudget(this).observe(this, active -> {
+        // One snapshot of every active budget; spent is kept by LedgerWriter
+        BudgetHelper.getBudgetStatuses(this).observe(this, statuses -> {
 
-            if (active == null) {
+            if (statuses == null || statuses.isEmpty()) {
                 binding.budgetStatusText.setVisibility(View.GONE);
                 return;
             }
 
-            db.transactionDao()
-                    .getExpenseBetween(active.startDate, active.endDate)
-                    .observe(this, spent -> {
-
-                        double used = Math.abs(spent == null ? 0 : spent);
-                        double remaining = active.amount - used;
-
-                        binding.budgetStatusText.setVisibility(View.VISIBLE);
+            StringBuilder text = new StringBuilder();
+            for (BudgetDao.BudgetStatus s : statuses) {
+                if (text.length() > 0) text.append('\n');
+                String scope = s.category == null ? "Budget" : s.category + " budget";
+
+                if (s.isExceeded()) {
+                    text.append("⚠ ").append(scope).append(" exceeded");
+                } else {
+                    text.append("Remaining ").append(scope).append(": ")
+                            .append(CurrencyUtils.formatMinor(s.remaining()));
+                }
+            }
 
-                        if (remaining <= 0) {
-                            binding.budgetStatusText.setText("⚠ Budget exceeded");
-                        } else {
-                            binding.budgetStatusText.setText(
-                                    "Remaining Budget: " +
-                                            CurrencyUtils.getCurrencyInstance().format(remaining)
-                            );
-                        }
-                    });
+            binding.budgetStatusText.setVisibility(View.VISIBLE);
+            binding.budgetStatusText.setText(text);
         });
     }
 
@@ -277,6 +390,7 @@ public class MainActivity extends AppCompatActivity {
         View v = getLayoutInflater().inflate(R.layout.dialog_set_budget, null);
 
         EditText amount = v.findViewById(R.id.budgetAmount);
+        EditText category = v.findViewById(R.id.budgetCategory);
         Spinner spinner = v.findViewById(R.id.budgetDuration);
 
         String[] durations = {"1 Week", "1 Month", "3 Months", "6 Months", "1 Year"};
@@ -296,7 +410,13 @@ public class MainActivity extends AppCompatActivity {
                         return;
                     }
 
-                    double value = Double.parseDouble(amount.getText().toString());
+                    long value;
+                    try {
+                        value = Money.parse(amount.getText().toString());
+                    } catch (NumberFormatException e) {
+                        Toast.makeText(this, "Invalid amount", Toast.LENGTH_SHORT).show();
+                        return;
+                    }
 
                     Calendar c = Calendar.getInstance();
                     long start = c.getTimeInMillis();
@@ -311,13 +431,81 @@ public class MainActivity extends AppCompatActivity {
 
                     long end = c.getTimeInMillis();
 
-                    BudgetHelper.saveBudget(this, value, start, end);
-
-                    Toast.makeText(this, "Budget saved", Toast.LENGTH_SHORT).show();
+                    String scope = category.getText().toString().trim();
+                    BudgetHelper.saveBudget(this, scope.isEmpty() ? null : scope, value, start, end,
+                            result -> runOnUiThread(() -> onBudgetSaved(scope, result)));
                 })
                 .setNegativeButton("Cancel", null)
                 .show();
     }
+
+    private void onBudgetSaved(String scope, BudgetHelper.SaveResult result) {
+        if (result == BudgetHelper.SaveResult.SAVED) {
+            toast("Budget saved");
+            if (!isFinishing()) requestNotificationPermission();
+        } else if (result == BudgetHelper.SaveResult.UNKNOWN_CATEGORY) {
+            toast("No category named \"" + scope + "\"; budget not saved");
+        } else {
+            toast("Couldn't save the budget");
+        }
+    }
+
+    // ----------------------------- RECURRING --------------------------------
+
+    // Active rules; picking one stops it (rows already written are kept)
+    private void showRecurringDialog() {
+        AppDatabase.databaseReadExecutor.execute(() -> {
+            List<RecurringDao.ActiveRule> rules = db.recurringDao().loadActiveRules();
+            runOnUiThread(() -> {
+                if (isFinishing()) return;
+                if (rules.isEmpty()) {
+                    toast("No recurring entries. Long-press an entry in History to repeat it");
+                    return;
+                }
+
+                String[] items = new String[rules.size()];
+                for (int i = 0; i < items.length; i++) items[i] = describe(rules.get(i).rule);
+
+                new AlertDialog.Builder(this)
+                        .setTitle("Recurring Entries")
+                        .setItems(items, (d, which) -> confirmStopRule(rules.get(which).rule))
+                        .setNegativeButton("Close", null)
+                        .show();
+            });
+        });
+    }
+
+    private void confirmStopRule(RecurringRule rule) {
+        new AlertDialog.Builder(this)
+                .setTitle("Stop repeating?")
+                .setMessage(describe(rule) + "\n\nEntries already added are kept.")
+                .setPositiveButton("Stop", (d, w) -> RecurringScheduler.stopRule(db, rule.id,
+                        () -> runOnUiThread(() -> toast("Stopped repeating " + rule.label))))
+                .setNegativeButton("Cancel", null)
+                .show();
+    }
+
+    private static String describe(RecurringRule rule) {
+        String unit;
+        switch (rule.frequency) {
+            case DAILY: unit = "day"; break;
+            case WEEKLY: unit = "week"; break;
+            case YEARLY: unit = "year"; break;
+            default: unit = "month"; break;
+        }
+        String every = rule.interval > 1 ? "every " + rule.interval + " " + unit + "s" : "every " + unit;
+        return rule.label + " · " + CurrencyUtils.formatMinor(Math.abs(rule.amount)) + " · " + every;
+    }
+
+    // Threshold alerts are notifications; only asked for once a budget exists
+    private void requestNotificationPermission() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.TIRAMISU
+                && ContextCompat.checkSelfPermission(this, Manifest.permission.POST_NOTIFICATIONS)
+                != PackageManager.PERMISSION_GRANTED) {
+            notificationPermissionLauncher.launch(Manifest.permission.POST_NOTIFICATIONS);
+        }
+    }
+
     private void showAdviceDialog() {
         String[] advice = getResources().getStringArray(R.array.financial_advice);
         String randomAdvice = advice[new Random().nextInt(advice.length)];
@@ -0,0 +1,47 @@
+package com.example.voicefinance;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Amounts are stored and summed as long minor units (paisa), so SQL SUMs
+ * and in-memory totals are exact. Conversions to and from the decimal
+ * text users type, exports carry and charts plot live here.
+ */
+public final class Money {
+
+    public static final int MINOR_PER_MAJOR = 100;
+
+    private Money() {}
+
+    // "1,250.5" -> 125050; rounds half-up past the second decimal
+    public static long parse(String text) {
+        String plain = text.trim().replace(",", "");
+        try {
+            return new BigDecimal(plain)
+                    .movePointRight(2)
+                    .setScale(0, RoundingMode.HALF_UP)
+                    .longValueExact();
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Amount out of range: " + text);
+        }
+    }
+
+    // 125050 -> "1250.50", for edit fields and exports
+    public static String toPlainString(long minor) {
+        return toDecimal(minor).toPlainString();
+    }
+
+    public static BigDecimal toDecimal(long minor) {
+        return BigDecimal.valueOf(minor, 2);
+    }
+
+    // For chart values only; never feed the result back into storage
+    public static double toMajor(long minor) {
+        return minor / (double) MINOR_PER_MAJOR;
+    }
+
+    public static long fromMajor(double major) {
+        return Math.round(major * MINOR_PER_MAJOR);
+    }
+}
@@ -0,0 +1,263 @@
+package com.example.voicefinance;
+
+import android.content.ComponentCallbacks2;
+import android.content.res.Configuration;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.LiveData;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * LRU cache of query results, each tagged with the time window (and
+ * optionally the category) it was read from.
+ *
+ * Room's LiveData re-runs a query on every write to its tables; here a
+ * write only reloads the results whose window contains the old or new
+ * timestamp of a written row, so last year's drill-down stays cached while
+ * today's entries arrive. Results are LiveData: a reload happens at once
+ * when observed, otherwise on the next observation.
+ *
+ * Writers report rows with noteWritten() inside their transaction and call
+ * publish() once the outermost transaction has committed, so a reload never
+ * reads uncommitted data. Both are called on the writer thread.
+ */
+class QueryCache implements ComponentCallbacks2 {
+
+    private static final String TAG = "QueryCache";
+
+    // Above this many rows per commit, a write is tracked as one range
+    private static final int MAX_EXACT_ROWS = 256;
+
+    private final int maxEntries;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Access-ordered: iteration starts at the least recently used entry
+    private final LinkedHashMap<Key, Entry<?>> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    // ---- writer-thread state ----
+    private WriteSet pending = new WriteSet();
+
+    QueryCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    // -----------------------------
+    // READS (main thread)
+    // -----------------------------
+
+    // start inclusive, end exclusive; category null when the query spans all categories
+    @SuppressWarnings("unchecked")
+    <T> LiveData<T> get(String query, long start, long end, String category, Callable<T> loader) {
+        Key key = new Key(query, start, end, category);
+        synchronized (entries) {
+            Entry<T> entry = (Entry<T>) entries.get(key);
+            if (entry == null) {
+                entry = new Entry<>(key, loader);
+                entries.put(key, entry);
+                evict(maxEntries);
+            }
+            return entry;
+        }
+    }
+
+    // Everything is reloaded, e.g. after the rollups are rebuilt
+    void invalidateAll() {
+        List<Entry<?>> all;
+        synchronized (entries) {
+            all = new ArrayList<>(entries.values());
+        }
+        for (Entry<?> entry : all) mainHandler.post(entry::invalidate);
+    }
+
+    // -----------------------------
+    // WRITES (writer thread)
+    // -----------------------------
+
+    // Old and new versions of every written row
+    void noteWritten(List<Transaction> rows) {
+        for (Transaction t : rows) pending.add(t.timestamp, t.category);
+    }
+
+    void publish() {
+        WriteSet written = pending;
+        if (written.isEmpty()) return;
+        pending = new WriteSet();
+
+        List<Entry<?>> hit = new ArrayList<>();
+        synchronized (entries) {
+            for (Entry<?> entry : entries.values()) {
+                if (written.touches(entry.key)) hit.add(entry);
+            }
+        }
+        for (Entry<?> entry : hit) mainHandler.post(entry::invalidate);
+    }
+
+    // -----------------------------
+    // MEMORY PRESSURE
+    // -----------------------------
+
+    @Override
+    public void onTrimMemory(int level) {
+        if (level >= TRIM_MEMORY_UI_HIDDEN) trim();
+    }
+
+    @Override
+    public void onLowMemory() {
+        trim();
+    }
+
+    @Override
+    public void onConfigurationChanged(@NonNull Configuration newConfig) {
+    }
+
+    // Drops every result that no screen is observing
+    private void trim() {
+        synchronized (entries) {
+            int before = entries.size();
+            evict(0);
+            Log.d(TAG, "trimmed " + (before - entries.size()) + " of " + before + " results");
+        }
+    }
+
+    // Observed entries are never evicted, so the cache may exceed max while they are
+    private void evict(int max) {
+        Iterator<Entry<?>> it = entries.values().iterator();
+        while (entries.size() > max && it.hasNext()) {
+            Entry<?> entry = it.next();
+            if (entry.hasObservers()) continue;
+            entry.detached = true;
+            it.remove();
+        }
+    }
+
+    private final class Entry<T> extends LiveData<T> {
+        final Key key;
+        private final Callable<T> loader;
+        private final AtomicInteger generation = new AtomicInteger();
+
+        // ---- main-thread state ----
+        private boolean stale = true;
+        boolean detached;   // evicted while a caller still held it
+
+        Entry(Key key, Callable<T> loader) {
+            this.key = key;
+            this.loader = loader;
+        }
+
+        @Override
+        protected void onActive() {
+            if (detached) {
+                // Missed invalidations while out of the cache
+                detached = false;
+                stale = true;
+                synchronized (entries) {
+                    entries.put(key, this);
+                    evict(maxEntries);
+                }
+            }
+            if (stale) load();
+        }
+
+        void invalidate() {
+            stale = true;
+            if (hasActiveObservers()) load();
+        }
+
+        private void load() {
+            stale = false;
+            int g = generation.incrementAndGet();
+            AppDatabase.databaseReadExecutor.execute(() -> {
+                try {
+                    T result = loader.call();
+                    // Dropped if a newer load started meanwhile
+                    if (g == generation.get()) postValue(result);
+                } catch (Exception e) {
+                    Log.e(TAG, key.query + " failed", e);
+                    mainHandler.post(() -> stale = true);
+                }
+            });
+        }
+    }
+
+    private static final class Key {
+        final String query;
+        final long start;
+        final long end;
+        final String category;
+
+        Key(String query, long start, long end, String category) {
+            this.query = query;
+            this.start = start;
+            this.end = end;
+            this.category = category;
+        }
+
+        boolean covers(long timestamp, String rowCategory) {
+            return timestamp >= start && timestamp < end
+                    && (category == null || category.equals(rowCategory));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return start == k.start && end == k.end && query.equals(k.query)
+                    && (category == null ? k.category == null : category.equals(k.category));
+        }
+
+        @Override
+        public int hashCode() {
+            int h = query.hashCode();
+            h = 31 * h + Long.hashCode(start);
+            h = 31 * h + Long.hashCode(end);
+            return 31 * h + (category == null ? 0 : category.hashCode());
+        }
+    }
+
+    // Rows written since the last publish(): exact for small writes,
+    // collapsed to [min, max] over all categories for bulk ones
+    private static final class WriteSet {
+        private final List<Long> timestamps = new ArrayList<>();
+        private final List<String> categories = new ArrayList<>();
+        private long min = Long.MAX_VALUE;
+        private long max = Long.MIN_VALUE;
+        private boolean collapsed;
+
+        void add(long timestamp, String category) {
+            min = Math.min(min, timestamp);
+            max = Math.max(max, timestamp);
+            if (collapsed) return;
+
+            if (timestamps.size() == MAX_EXACT_ROWS) {
+                collapsed = true;
+                timestamps.clear();
+                categories.clear();
+                return;
+            }
+            timestamps.add(timestamp);
+            categories.add(category == null ? "" : category.trim());
+        }
+
+        boolean isEmpty() {
+            return min > max;
+        }
+
+        boolean touches(Key key) {
+            if (collapsed) return min < key.end && max >= key.start;
+            for (int i = 0; i < timestamps.size(); i++) {
+                if (key.covers(timestamps.get(i), categories.get(i))) return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.voicefinance;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Occurrence arithmetic for RecurringRule.
+ *
+ * Occurrences are computed on demand from (startAt, n), so neither the
+ * scheduler nor a chart needs stored future rows: projections are summed
+ * straight into per-period totals and never touch the ledger.
+ */
+public class Recurrence {
+
+    // n-th occurrence, counted from the start so month ends do not drift
+    public static long occurrence(RecurringRule rule, int n) {
+        Calendar c = Calendar.getInstance();
+        c.setTimeInMillis(rule.startAt);
+        c.add(rule.frequency.calendarField, n * Math.max(1, rule.interval));
+        return c.getTimeInMillis();
+    }
+
+    // Moves the rule past occurrence nextIndex; deactivates it after endAt
+    public static void advance(RecurringRule rule) {
+        rule.nextIndex++;
+        rule.nextAt = occurrence(rule, rule.nextIndex);
+        if (rule.endAt != null && rule.nextAt > rule.endAt) rule.active = false;
+    }
+
+    // ------------------------------------------------
+    // PROJECTIONS
+    // Expense totals per month (yyyy-MM) and category of the occurrences
+    // not yet in the ledger that fall in (from, to]; one pass per rule
+    // ------------------------------------------------
+    public static List<TrendSeries.Row> projectMonthlyExpenses(
+            List<RecurringDao.ActiveRule> rules, long from, long to) {
+        Map<String, TrendSeries.Row> totals = new HashMap<>();
+        TimeBuckets buckets = TimeBuckets.get();
+
+        for (RecurringDao.ActiveRule active : rules) {
+            RecurringRule rule = active.rule;
+            if (rule.amount >= 0) continue;
+
+            long last = rule.endAt == null ? to : Math.min(to, rule.endAt);
+            for (int n = rule.nextIndex; ; n++) {
+                long at = occurrence(rule, n);
+                if (at > last) break;
+                if (at <= from) continue;   // due but not caught up yet
+
+                int monthKey = buckets.dayKey(at) / 100;
+                String period = String.format(Locale.US, "%04d-%02d", monthKey / 100, monthKey % 100);
+                String key = period + '\u0000' + active.category;
+
+                TrendSeries.Row row = totals.get(key);
+                if (row == null) {
+                    row = new TrendSeries.Row();
+                    row.period = period;
+                    row.category = active.category;
+                    totals.put(key, row);
+                }
+                row.total += rule.amount;
+            }
+        }
+        return new ArrayList<>(totals.values());
+    }
+}
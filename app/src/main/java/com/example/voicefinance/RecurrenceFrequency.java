@@ -0,0 +1,17 @@
+package com.example.voicefinance;
+
+import java.util.Calendar;
+
+public enum RecurrenceFrequency {
+    DAILY(Calendar.DAY_OF_MONTH),
+    WEEKLY(Calendar.WEEK_OF_YEAR),
+    MONTHLY(Calendar.MONTH),
+    YEARLY(Calendar.YEAR);
+
+    // Calendar field stepped by one interval
+    final int calendarField;
+
+    RecurrenceFrequency(int calendarField) {
+        this.calendarField = calendarField;
+    }
+}
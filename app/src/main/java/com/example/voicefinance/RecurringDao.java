@@ -0,0 +1,53 @@
+package com.example.voicefinance;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Embedded;
+import androidx.room.Insert;
+import androidx.room.Query;
+import androidx.room.Update;
+
+import java.util.List;
+
+@Dao
+public interface RecurringDao {
+
+    @Insert
+    long insert(RecurringRule rule);
+
+    @Update
+    void updateAll(List<RecurringRule> rules);
+
+    @Query("UPDATE recurring_rules SET active = 0 WHERE id = :id")
+    void deactivate(int id);
+
+    /* ---------------------------------------------------
+     * CATCH-UP (writer thread, RecurringScheduler)
+     * Index seek on next_at: only rules with something due are read
+     * --------------------------------------------------- */
+
+    @Query("SELECT * FROM recurring_rules WHERE active = 1 AND next_at <= :now")
+    List<RecurringRule> getDue(long now);
+
+    /* ---------------------------------------------------
+     * ACTIVE RULES (charts, rule list)
+     * --------------------------------------------------- */
+
+    String ACTIVE_RULES =
+            "SELECT recurring_rules.*, categories.name AS category FROM recurring_rules " +
+                    "JOIN categories ON categories.id = recurring_rules.category_id " +
+                    "WHERE recurring_rules.active = 1 " +
+                    "ORDER BY recurring_rules.label";
+
+    @Query(ACTIVE_RULES)
+    LiveData<List<ActiveRule>> getActiveRules();
+
+    @Query(ACTIVE_RULES)
+    List<ActiveRule> loadActiveRules();
+
+    class ActiveRule {
+        @Embedded
+        public RecurringRule rule;
+        public String category;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.voicefinance;
+
+import androidx.annotation.Nullable;
+import androidx.room.ColumnInfo;
+import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+import androidx.room.TypeConverters;
+
+/**
+ * A transaction that repeats every interval x frequency from startAt.
+ * Occurrence n is computed from startAt (Recurrence.occurrence), never
+ * from the previous one, so a rule on the 31st stays on month ends.
+ * Occurrences before nextIndex have been written to the ledger;
+ * later ones only exist as projections.
+ */
+@Entity(
+        tableName = "recurring_rules",
+        foreignKeys = @ForeignKey(
+                entity = Category.class,
+                parentColumns = "id",
+                childColumns = "category_id"
+        ),
+        indices = {
+                @Index("category_id"),
+                @Index("next_at")
+        }
+)
+public class RecurringRule {
+
+    @PrimaryKey(autoGenerate = true)
+    public int id;
+
+    public String label;
+    public long amount;     // minor units (paisa), negative for expenses
+
+    @ColumnInfo(name = "category_id")
+    public int categoryId;
+
+    @TypeConverters(Converters.class)
+    public TransactionType type;
+
+    @TypeConverters(Converters.class)
+    public RecurrenceFrequency frequency;
+
+    public int interval;    // every N frequency units, >= 1
+
+    @ColumnInfo(name = "start_at")
+    public long startAt;    // occurrence 0, millis
+
+    @ColumnInfo(name = "end_at")
+    @Nullable
+    public Long endAt;      // last allowed occurrence, null for open-ended
+
+    @ColumnInfo(name = "next_index")
+    public int nextIndex;   // first occurrence not yet in the ledger
+
+    @ColumnInfo(name = "next_at")
+    public long nextAt;     // its timestamp, indexed for the due query
+
+    public boolean active;
+
+    // Ledger row for one occurrence
+    public Transaction materialize(long timestamp) {
+        Transaction t = new Transaction(label, amount, timestamp, null, type);
+        t.categoryId = categoryId;
+        return t;
+    }
+}
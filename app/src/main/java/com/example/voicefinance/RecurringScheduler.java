@@ -0,0 +1,124 @@
+package com.example.voicefinance;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes the due occurrences of recurring rules into the ledger.
+ *
+ * catchUp() reads only the rules with next_at <= now and writes the
+ * occurrences they missed in one transaction together with the rules' new
+ * positions, so a run is either fully written or not at all and a retry
+ * never duplicates a row. A run writes at most MAX_OCCURRENCES_PER_RULE
+ * per rule; a rule further behind than that (a daily rule left for years)
+ * queues another run once this one has committed, so catch-up can be
+ * partial between runs but always completes. A run that fails is rolled
+ * back, logged and retried after a growing delay. Future occurrences are
+ * not stored; charts project them with Recurrence.
+ */
+public class RecurringScheduler {
+
+    private static final String CATCH_UP_KEY = "recurring-catch-up";
+
+    // Per rule and run; bounds the rows held in memory by one transaction
+    static final int MAX_OCCURRENCES_PER_RULE = 1000;
+
+    private static final String TAG = "RecurringScheduler";
+
+    // Retry delay after a failed run, doubling per failure in a row
+    private static final long MIN_RETRY_MS = 5_000;
+    private static final long MAX_RETRY_MS = 10 * 60_000;
+
+    private static final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // ---- writer thread ----
+    private static int failuresInRow;
+
+    // Any thread; runs once however often it is asked while queued
+    public static void schedule(AppDatabase db) {
+        AppDatabase.databaseWriteExecutor.executeCoalesced(CATCH_UP_KEY,
+                () -> catchUp(db, System.currentTimeMillis()));
+    }
+
+    // Stops future occurrences; rows already written stay in the ledger
+    public static void stopRule(AppDatabase db, int ruleId, Runnable onStopped) {
+        AppDatabase.databaseWriteExecutor.execute(() -> {
+            db.recurringDao().deactivate(ruleId);
+            if (onStopped != null) onStopped.run();
+        });
+    }
+
+    // Repeat an existing ledger row from its own date on; call on the writer thread
+    public static void addRule(AppDatabase db, Transaction first,
+                               RecurrenceFrequency frequency, int interval) {
+        RecurringRule rule = new RecurringRule();
+        rule.label = first.label;
+        rule.amount = first.amount;
+        rule.categoryId = first.categoryId;
+        rule.type = first.type;
+        rule.frequency = frequency;
+        rule.interval = interval;
+        rule.startAt = first.timestamp;
+        rule.active = true;
+        rule.nextIndex = 0;
+        Recurrence.advance(rule);   // occurrence 0 is the row itself
+
+        // A rule is only kept together with the occurrences it already owes
+        long now = System.currentTimeMillis();
+        boolean[] behind = new boolean[1];
+        LedgerWriter.inTransaction(db, () -> {
+            db.recurringDao().insert(rule);
+            behind[0] = writeDue(db, now);
+        });
+        WalCheckpointScheduler.noteCommit(db);
+        if (behind[0]) schedule(db);
+    }
+
+    // Call on AppDatabase.databaseWriteExecutor
+    static void catchUp(AppDatabase db, long now) {
+        boolean[] behind = new boolean[1];
+        try {
+            LedgerWriter.inTransaction(db, () -> behind[0] = writeDue(db, now));
+        } catch (RuntimeException e) {
+            // Nothing of this run was written
+            long delay = Math.min(MIN_RETRY_MS << Math.min(failuresInRow, 16), MAX_RETRY_MS);
+            failuresInRow++;
+            Log.e(TAG, "Catch-up failed, retrying in " + delay + " ms", e);
+            mainHandler.postDelayed(() -> schedule(db), delay);
+            return;
+        }
+        failuresInRow = 0;
+        WalCheckpointScheduler.noteCommit(db);
+
+        // Committed: the next run goes on where this one stopped
+        if (behind[0]) schedule(db);
+    }
+
+    // Inside a transaction: writes the due occurrences and the rules' new positions.
+    // Returns whether a rule is still behind
+    private static boolean writeDue(AppDatabase db, long now) {
+        List<RecurringRule> due = db.recurringDao().getDue(now);
+        if (due.isEmpty()) return false;
+
+        List<Transaction> rows = new ArrayList<>();
+        long createdAt = System.currentTimeMillis();
+        boolean behind = false;
+        for (RecurringRule rule : due) {
+            for (int i = 0; i < MAX_OCCURRENCES_PER_RULE && rule.active && rule.nextAt <= now; i++) {
+                Transaction t = rule.materialize(rule.nextAt);
+                t.createdAt = createdAt;
+                rows.add(t);
+                Recurrence.advance(rule);
+            }
+            behind |= rule.active && rule.nextAt <= now;
+        }
+
+        LedgerWriter.insertAll(db, rows);
+        db.recurringDao().updateAll(due);
+        return behind;
+    }
+}
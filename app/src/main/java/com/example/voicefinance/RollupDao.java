@@ -0,0 +1,105 @@
+package com.example.voicefinance;
+
+import androidx.lifecycle.LiveData;
+import androidx.room.Dao;
+import androidx.room.Query;
+
+@Dao
+public interface RollupDao {
+
+    /* ---------------------------------------------------
+     * INCREMENTAL MAINTENANCE (called inside LedgerWriter)
+     * --------------------------------------------------- */
+
+    @Query(
+            "INSERT OR IGNORE INTO daily_rollup (day_key, category_id, sign, total, count) " +
+                    "VALUES (:dayKey, :categoryId, :sign, 0, 0)"
+    )
+    void ensureRow(int dayKey, int categoryId, int sign);
+
+    @Query(
+            "UPDATE daily_rollup " +
+                    "SET total = total + :delta, count = count + :countDelta " +
+                    "WHERE day_key = :dayKey AND category_id = :categoryId AND sign = :sign"
+    )
+    void applyDelta(int dayKey, int categoryId, int sign, long delta, int countDelta);
+
+    @Query(
+            "DELETE FROM daily_rollup " +
+                    "WHERE day_key = :dayKey AND category_id = :categoryId AND sign = :sign " +
+                    "AND count <= 0"
+    )
+    void pruneIfEmpty(int dayKey, int categoryId, int sign);
+
+    @Query(
+            "INSERT OR IGNORE INTO ledger_summary (id, balance, income, expense, count) " +
+                    "VALUES (1, 0, 0, 0, 0)"
+    )
+    void ensureSummary();
+
+    @Query(
+            "UPDATE ledger_summary " +
+                    "SET balance = balance + :balanceDelta, " +
+                    "income = income + :incomeDelta, " +
+                    "expense = expense + :expenseDelta, " +
+                    "count = count + :countDelta " +
+                    "WHERE id = 1"
+    )
+    void applySummaryDelta(long balanceDelta, long incomeDelta,
+                           long expenseDelta, int countDelta);
+
+    /* ---------------------------------------------------
+     * DASHBOARD
+     * --------------------------------------------------- */
+
+    @Query("SELECT * FROM ledger_summary WHERE id = 1")
+    LiveData<LedgerSummary> getSummary();
+
+    // Same statement, read once at startup to warm the page cache
+    @Query("SELECT * FROM ledger_summary WHERE id = 1")
+    LedgerSummary loadSummary();
+
+    /* ---------------------------------------------------
+     * HISTORY HEADERS
+     * --------------------------------------------------- */
+
+    @Query(
+            "SELECT IFNULL(SUM(total),0) FROM daily_rollup " +
+                    "WHERE sign = -1 AND day_key >= :fromDayKey AND day_key < :toDayKey"
+    )
+    long getExpenseBetweenDays(int fromDayKey, int toDayKey);
+
+    /* ---------------------------------------------------
+     * REBUILD (drift recovery)
+     * --------------------------------------------------- */
+
+    @Query("DELETE FROM daily_rollup")
+    void clear();
+
+    @Query("DELETE FROM ledger_summary")
+    void clearSummary();
+
+    @Query(
+            "INSERT INTO ledger_summary (id, balance, income, expense, count) " +
+                    "SELECT 1, " +
+                    "IFNULL(SUM(amount), 0), " +
+                    "IFNULL(SUM(CASE WHEN amount > 0 THEN amount END), 0), " +
+                    "IFNULL(SUM(CASE WHEN amount <= 0 THEN amount END), 0), " +
+                    "COUNT(*) " +
+                    "FROM transactions"
+    )
+    void fillSummaryFromTransactions();
+
+    @Query(
+            "INSERT INTO daily_rollup (day_key, category_id, sign, total, count) " +
+                    "SELECT " +
+                    "day_key, " +
+                    "category_id, " +
+                    "CASE WHEN amount < 0 THEN -1 ELSE 1 END, " +
+                    "SUM(amount), " +
+                    "COUNT(*) " +
+                    "FROM transactions " +
+                    "GROUP BY 1, 2, 3"
+    )
+    void fillFromTransactions();
+}
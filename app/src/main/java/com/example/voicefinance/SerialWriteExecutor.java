@@ -0,0 +1,189 @@
+package com.example.voicefinance;
+
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The one thread that writes to transaction_database.
+ *
+ * SQLite allows a single writer, so every write task runs here in
+ * submission order. Tasks submitted with a key are coalesced: while one
+ * is still queued and nothing was submitted after it, later submissions
+ * with the same key replace its body instead of queueing again. Once
+ * another task is queued behind it, a new one is queued instead, so a
+ * replaced body never overtakes a task submitted before it. Replacing a
+ * body and taking it to run happen under one lock, so a submission either
+ * lands in the queued task or queues a new one. Queue depth, wait/run
+ * times and coalescing per key are
+ * tracked so write latency can be measured; VoiceFinanceApplication logs
+ * them whenever the app goes to the background.
+ */
+public class SerialWriteExecutor implements Executor {
+
+    private static final String TAG = "SerialWriteExecutor";
+    // Waits longer than this are logged
+    private static final long SLOW_WAIT_MS = 100;
+
+    private final ExecutorService thread = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "db-writer");
+        t.setPriority(Thread.NORM_PRIORITY);
+        return t;
+    });
+
+    // ---- guarded by pending: queued coalesced tasks and coalescing counts by key, submission count ----
+    private final Map<String, Slot> pending = new HashMap<>();
+    private final Map<String, Long> coalescedByKey = new HashMap<>();
+    // Sequence number of the last queued task
+    private long submitted;
+
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong totalWaitMs = new AtomicLong();
+    private final AtomicLong totalRunMs = new AtomicLong();
+    private final AtomicLong maxWaitMs = new AtomicLong();
+
+    @Override
+    public void execute(@NonNull Runnable task) {
+        submit(task);
+    }
+
+    // Runs task in order; if a task with the same key is last in the queue, it is replaced
+    public void executeCoalesced(String key, Runnable task) {
+        synchronized (pending) {
+            Slot existing = pending.get(key);
+            if (existing != null && existing.seq == submitted) {
+                existing.task = task;
+                Long n = coalescedByKey.get(key);
+                coalescedByKey.put(key, n == null ? 1 : n + 1);
+                coalesced.incrementAndGet();
+                return;
+            }
+
+            // A queued slot with tasks behind it keeps its body and runs in its place
+            Slot slot = new Slot(task);
+            pending.put(key, slot);
+            slot.seq = submit(() -> {
+                Runnable body;
+                synchronized (pending) {
+                    // Later submissions queue a new task from here on
+                    if (pending.get(key) == slot) pending.remove(key);
+                    body = slot.task;
+                }
+                body.run();
+            });
+        }
+    }
+
+    // Queues under the pending lock, so the sequence number matches the queue order
+    private long submit(Runnable task) {
+        synchronized (pending) {
+            long enqueuedAt = System.nanoTime();
+            queueDepth.incrementAndGet();
+
+            thread.execute(() -> {
+                queueDepth.decrementAndGet();
+                long startedAt = System.nanoTime();
+                long waitMs = (startedAt - enqueuedAt) / 1_000_000;
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    // Reported here so the thread, and the tasks queued behind this one, go on
+                    failed.incrementAndGet();
+                    Log.e(TAG, "Write task failed", e);
+                } finally {
+                    long runMs = (System.nanoTime() - startedAt) / 1_000_000;
+                    record(waitMs, runMs);
+                }
+            });
+            return ++submitted;
+        }
+    }
+
+    private void record(long waitMs, long runMs) {
+        completed.incrementAndGet();
+        totalWaitMs.addAndGet(waitMs);
+        totalRunMs.addAndGet(runMs);
+
+        long max;
+        do {
+            max = maxWaitMs.get();
+        } while (waitMs > max && !maxWaitMs.compareAndSet(max, waitMs));
+
+        if (waitMs > SLOW_WAIT_MS) {
+            Log.w(TAG, "Write waited " + waitMs + " ms (queue depth " + queueDepth.get() + ")");
+        }
+    }
+
+    // ------------------------------------------------
+    // METRICS
+    // ------------------------------------------------
+    public int getQueueDepth() {
+        return queueDepth.get();
+    }
+
+    public long getCompletedTasks() {
+        return completed.get();
+    }
+
+    public long getFailedTasks() {
+        return failed.get();
+    }
+
+    public long getCoalescedTasks() {
+        return coalesced.get();
+    }
+
+    // Submissions folded into an already queued task, per key
+    public Map<String, Long> getCoalescedTasksByKey() {
+        synchronized (pending) {
+            return new TreeMap<>(coalescedByKey);
+        }
+    }
+
+    public long getMaxWaitMillis() {
+        return maxWaitMs.get();
+    }
+
+    public double getAverageWaitMillis() {
+        long n = completed.get();
+        return n == 0 ? 0 : (double) totalWaitMs.get() / n;
+    }
+
+    public double getAverageRunMillis() {
+        long n = completed.get();
+        return n == 0 ? 0 : (double) totalRunMs.get() / n;
+    }
+
+    @Override
+    public String toString() {
+        return "writes=" + getCompletedTasks()
+                + " failed=" + getFailedTasks()
+                + " coalesced=" + getCoalescedTasks() + getCoalescedTasksByKey()
+                + " depth=" + getQueueDepth()
+                + " avgWait=" + String.format(Locale.US, "%.1f", getAverageWaitMillis()) + "ms"
+                + " maxWait=" + getMaxWaitMillis() + "ms"
+                + " avgRun=" + String.format(Locale.US, "%.1f", getAverageRunMillis()) + "ms";
+    }
+
+    private static final class Slot {
+        Runnable task;      // guarded by pending
+        long seq;           // guarded by pending; its submission sequence number
+
+        Slot(Runnable task) {
+            this.task = task;
+        }
+    }
+}
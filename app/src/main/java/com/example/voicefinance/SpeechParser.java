@@ -0,0 +1,327 @@
+package com.example.voicefinance;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Turns a recognised voice phrase into one or more entries.
+ *
+ *   "lunch 250 and bus 40"            -> lunch -250.00, bus -40.00
+ *   "lunch 250 bus 40"                -> lunch -250.00, bus -40.00
+ *   "rent 1 lakh 50 thousand"         -> rent -150,000.00
+ *   "got salary forty five thousand"  -> salary +45,000.00
+ *   "bus ভাড়া ৩০ টাকা"                -> bus ভাড়া -30.00
+ *
+ * One pass of a hand-written tokenizer feeds a small state machine. The
+ * word tables are built once, so no regex is compiled or run per phrase.
+ * Amounts are accumulated in minor units. Kept free of Android types so it
+ * can be benchmarked on the JVM.
+ */
+public class SpeechParser {
+
+    public static class Result {
+        public final String label;
+        public final long amount;        // minor units, negative for expenses
+        public final boolean isExpense;
+
+        Result(String label, long amount, boolean isExpense) {
+            this.label = label;
+            this.amount = amount;
+            this.isExpense = isExpense;
+        }
+    }
+
+    // ------------------------------------------------
+    // WORD TABLES
+    // ------------------------------------------------
+    private static final Map<String, Integer> UNITS = new HashMap<>();
+    private static final Map<String, Long> SCALES = new HashMap<>();
+    private static final Set<String> CURRENCY = new HashSet<>();
+    private static final Set<String> INCOME_WORDS = new HashSet<>();
+    private static final Set<String> EXPENSE_WORDS = new HashSet<>();
+    private static final Set<String> FILLER = new HashSet<>();
+    private static final Set<String> SEPARATORS = new HashSet<>();
+
+    static {
+        String[] units = {
+                "zero", "one", "two", "three", "four", "five", "six", "seven", "eight", "nine",
+                "ten", "eleven", "twelve", "thirteen", "fourteen", "fifteen", "sixteen",
+                "seventeen", "eighteen", "nineteen"
+        };
+        for (int i = 0; i < units.length; i++) UNITS.put(units[i], i);
+        String[] tens = {"twenty", "thirty", "forty", "fifty", "sixty", "seventy", "eighty", "ninety"};
+        for (int i = 0; i < tens.length; i++) UNITS.put(tens[i], (i + 2) * 10);
+        UNITS.put("fourty", 40);
+
+        SCALES.put("hundred", 100L);
+        SCALES.put("thousand", 1_000L);
+        SCALES.put("lakh", 100_000L);
+        SCALES.put("lac", 100_000L);
+        SCALES.put("million", 1_000_000L);
+        SCALES.put("crore", 10_000_000L);
+
+        Collections.addAll(CURRENCY, "taka", "tk", "tka", "bdt", "৳", "টাকা");
+        Collections.addAll(INCOME_WORDS, "income", "got", "received", "earned", "salary");
+        Collections.addAll(EXPENSE_WORDS, "spent", "paid", "bought", "expense");
+        // Dropped from labels; "salary" stays since it names the entry
+        Collections.addAll(FILLER, "income", "got", "received", "earned", "spent", "paid",
+                "bought", "expense", "for", "on", "from", "of", "the", "a", "an", "i", "my", "rs");
+        Collections.addAll(SEPARATORS, "and", "plus", "then", "also", ",", ";");
+    }
+
+    private static final char BENGALI_ZERO = '০';
+    private static final char BENGALI_NINE = '৯';
+
+    // Returns an empty list when no amount is found
+    public static List<Result> parse(String text) {
+        List<String> tokens = tokenize(text);
+        List<Result> results = new ArrayList<>(2);
+
+        Draft draft = new Draft();
+        boolean income = false;     // carries over to later entries unless they say otherwise
+
+        int i = 0;
+        while (i < tokens.size()) {
+            String token = tokens.get(i);
+
+            if (startsNumber(token)) {
+                long[] parsed = readNumber(tokens, i);
+                if (parsed != null) {
+                    if (draft.hasAmount()) {
+                        income = finish(draft, income, results);
+                        draft = new Draft();
+                    }
+                    draft.amount = parsed[0];
+                    i = (int) parsed[1];
+                    continue;
+                }
+            }
+
+            if (CURRENCY.contains(token)) {
+                // "taka", "tk", "৳": never part of a label
+            } else if (SEPARATORS.contains(token) && draft.hasAmount()) {
+                income = finish(draft, income, results);
+                draft = new Draft();
+            } else {
+                // "bread and butter 50": a conjunction before any amount is label text
+                boolean keep = SEPARATORS.contains(token)
+                        ? Character.isLetter(token.charAt(0)) && !draft.words.isEmpty()
+                        : !FILLER.contains(token);
+
+                // "lunch 250 bus 40": once an entry has its label and amount, the
+                // next label word starts the next entry ("250 for lunch" still attaches)
+                if (keep && draft.hasAmount() && !draft.words.isEmpty()) {
+                    income = finish(draft, income, results);
+                    draft = new Draft();
+                }
+
+                if (INCOME_WORDS.contains(token)) draft.direction = 1;
+                else if (EXPENSE_WORDS.contains(token)) draft.direction = -1;
+                if (keep) draft.words.add(token);
+            }
+            i++;
+        }
+
+        if (draft.hasAmount()) finish(draft, income, results);
+        return results;
+    }
+
+    // Adds the entry and returns the direction later entries inherit
+    private static boolean finish(Draft draft, boolean inherited, List<Result> out) {
+        boolean income = draft.direction == 0 ? inherited : draft.direction > 0;
+
+        String label = join(draft.words);
+        if (label.isEmpty()) label = income ? "Income" : "Expense";
+
+        out.add(new Result(label, income ? draft.amount : -draft.amount, !income));
+        return income;
+    }
+
+    private static final class Draft {
+        final List<String> words = new ArrayList<>(4);
+        long amount = -1;
+        int direction;          // 1 income, -1 expense, 0 unspecified
+
+        boolean hasAmount() {
+            return amount >= 0;
+        }
+    }
+
+    // ------------------------------------------------
+    // TOKENIZER
+    // Lowercases, maps Bengali digits to ASCII and splits into number,
+    // word and punctuation tokens ("250tk" -> "250", "tk").
+    // ------------------------------------------------
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>(8);
+        StringBuilder sb = new StringBuilder(16);
+        int n = text.length();
+        int i = 0;
+
+        while (i < n) {
+            char c = digitOf(text.charAt(i));
+
+            if (c >= '0' && c <= '9') {
+                // Digits with grouping commas ("1,250") and one decimal point
+                sb.setLength(0);
+                boolean seenPoint = false;
+                while (i < n) {
+                    char d = digitOf(text.charAt(i));
+                    if (d >= '0' && d <= '9') {
+                        sb.append(d);
+                        i++;
+                    } else if (d == ',' && !seenPoint && i + 1 < n && isDigit(text.charAt(i + 1))) {
+                        i++;
+                    } else if (d == '.' && !seenPoint && i + 1 < n && isDigit(text.charAt(i + 1))) {
+                        seenPoint = true;
+                        sb.append('.');
+                        i++;
+                    } else {
+                        break;
+                    }
+                }
+                tokens.add(sb.toString());
+
+            } else if (Character.isLetter(c) || isMark(c)) {
+                sb.setLength(0);
+                while (i < n) {
+                    char w = text.charAt(i);
+                    if (!(Character.isLetter(w) || isMark(w)) || isDigit(w)) break;
+                    sb.append(Character.toLowerCase(w));
+                    i++;
+                }
+                tokens.add(sb.toString());
+
+            } else {
+                if (c == ',' || c == ';' || c == '৳') tokens.add(String.valueOf(c));
+                i++;
+            }
+        }
+        return tokens;
+    }
+
+    private static char digitOf(char c) {
+        if (c >= BENGALI_ZERO && c <= BENGALI_NINE) return (char) ('0' + (c - BENGALI_ZERO));
+        return c;
+    }
+
+    private static boolean isDigit(char c) {
+        char d = digitOf(c);
+        return d >= '0' && d <= '9';
+    }
+
+    // Bengali vowel signs and the like belong to the word they follow
+    private static boolean isMark(char c) {
+        int type = Character.getType(c);
+        return type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK;
+    }
+
+    // ------------------------------------------------
+    // NUMBERS
+    // "2500", "250.50", "two thousand five hundred", "2 lakh",
+    // "two hundred and fifty", "twelve point five", "1 lakh 50 thousand"
+    // ------------------------------------------------
+    private static boolean startsNumber(String token) {
+        char c = token.charAt(0);
+        return (c >= '0' && c <= '9') || UNITS.containsKey(token);
+    }
+
+    // {minor units, index after the number}, or null if nothing was read.
+    // Reading stops before a token that would overflow the amount
+    private static long[] readNumber(List<String> tokens, int start) {
+        long total = 0;         // completed thousand/lakh/... groups, minor units
+        long current = 0;       // group being built, minor units
+        boolean any = false;
+        boolean sawScale = false;
+        long lastScale = 0;     // scale word just read, 0 after anything else
+        int i = start;
+
+        try {
+            while (i < tokens.size()) {
+                String token = tokens.get(i);
+                char c = token.charAt(0);
+                long scaleBefore = lastScale;
+                lastScale = 0;
+
+                if (c >= '0' && c <= '9') {
+                    long value = Money.parse(token);
+                    // Two digit runs in a row are two amounts: "250 40"; digits
+                    // below the scale just read continue it: "2 thousand 500"
+                    if (any && (scaleBefore == 0 || value >= scaleBefore * Money.MINOR_PER_MAJOR)) break;
+                    current = fits(total, Math.addExact(current, value));
+                    any = true;
+                    i++;
+                } else if (UNITS.containsKey(token)) {
+                    long value = UNITS.get(token) * (long) Money.MINOR_PER_MAJOR;
+                    // "five" after "twenty" adds; "five" after "five" starts a new amount
+                    if (any && current % (100L * Money.MINOR_PER_MAJOR) != 0
+                            && (current % (10L * Money.MINOR_PER_MAJOR) != 0 || value >= 10 * Money.MINOR_PER_MAJOR)) {
+                        break;
+                    }
+                    current = fits(total, Math.addExact(current, value));
+                    any = true;
+                    i++;
+                } else if (any && SCALES.containsKey(token)) {
+                    long scale = SCALES.get(token);
+                    if (scale == 100) {
+                        current = fits(total,
+                                Math.multiplyExact(current == 0 ? Money.MINOR_PER_MAJOR : current, 100));
+                    } else {
+                        total = Math.addExact(total,
+                                Math.multiplyExact(current == 0 ? Money.MINOR_PER_MAJOR : current, scale));
+                        current = 0;
+                    }
+                    sawScale = true;
+                    lastScale = scale;
+                    i++;
+                } else if (any && sawScale && token.equals("and")
+                        && i + 1 < tokens.size() && UNITS.containsKey(tokens.get(i + 1))) {
+                    // "two hundred and fifty"
+                    i++;
+                } else if (any && token.equals("point") && i + 1 < tokens.size()
+                        && UNITS.containsKey(tokens.get(i + 1))) {
+                    // "twelve point five": up to two spoken decimal digits
+                    i++;
+                    long scale = 10;
+                    while (i < tokens.size() && scale > 0) {
+                        Integer digit = UNITS.get(tokens.get(i));
+                        if (digit == null || digit > 9) break;
+                        current = fits(total, Math.addExact(current, digit * scale));
+                        scale /= 10;
+                        i++;
+                    }
+                } else {
+                    break;
+                }
+            }
+        } catch (NumberFormatException | ArithmeticException e) {
+            // A digit run too long for an amount, or a product past Long.MAX_VALUE:
+            // the number ends before that token
+        }
+
+        if (!any) return null;
+        return new long[]{total + current, i};
+    }
+
+    // current, if total + current still fits in a long
+    private static long fits(long total, long current) {
+        Math.addExact(total, current);
+        return current;
+    }
+
+    private static String join(List<String> words) {
+        if (words.isEmpty()) return "";
+        StringBuilder sb = new StringBuilder();
+        for (String w : words) {
+            if (sb.length() > 0) sb.append(' ');
+            sb.append(w);
+        }
+        return sb.toString().toLowerCase(Locale.ROOT);
+    }
+}
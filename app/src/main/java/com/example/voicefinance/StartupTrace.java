@@ -0,0 +1,64 @@
+package com.example.voicefinance;
+
+import android.app.Activity;
+import android.os.Build;
+import android.os.Process;
+import android.os.SystemClock;
+import android.os.Trace;
+import android.util.Log;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Cold-start timeline, logged under "StartupTrace".
+ *
+ * time-to-first-dashboard-value runs from process start to the first
+ * ledger summary shown by MainActivity and is logged once per process,
+ * together with how long the background database warm-up took. The same
+ * span is an async trace section (API 29+) for Perfetto / systrace, and
+ * reportFullyDrawn() marks it for the platform's own startup metrics.
+ */
+public class StartupTrace {
+
+    private static final String TAG = "StartupTrace";
+    private static final String SECTION = "time-to-first-dashboard-value";
+    private static final int COOKIE = 1;
+
+    private static final AtomicBoolean firstValueSeen = new AtomicBoolean();
+    private static volatile long appCreatedAt;
+    private static volatile long warmMillis = -1;
+
+    // From Application.onCreate
+    static void onAppCreate() {
+        appCreatedAt = SystemClock.uptimeMillis();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            Trace.beginAsyncSection(SECTION, COOKIE);
+        }
+        Log.i(TAG, "Application.onCreate at +" + sinceProcessStart(appCreatedAt) + " ms");
+    }
+
+    // From the warm-up thread once the database is open and warm
+    static void onDatabaseWarm(long tookMillis) {
+        warmMillis = tookMillis;
+        Log.i(TAG, "database warm in " + tookMillis + " ms, at +"
+                + sinceProcessStart(SystemClock.uptimeMillis()) + " ms");
+    }
+
+    // Main thread, on every dashboard update; only the first one counts
+    static void onDashboardValue(Activity activity) {
+        if (!firstValueSeen.compareAndSet(false, true)) return;
+
+        long now = SystemClock.uptimeMillis();
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            Trace.endAsyncSection(SECTION, COOKIE);
+        }
+        Log.i(TAG, SECTION + ": " + sinceProcessStart(now) + " ms"
+                + " (" + (now - appCreatedAt) + " ms after Application.onCreate"
+                + (warmMillis >= 0 ? ", database warm took " + warmMillis + " ms)" : ", database still warming)"));
+        activity.reportFullyDrawn();
+    }
+
+    private static long sinceProcessStart(long uptimeMillis) {
+        return uptimeMillis - Process.getStartUptimeMillis();
+    }
+}
@@ -11,16 +11,14 @@ import android.text.style.StyleSpan;
 import android.view.View;
 
 import androidx.appcompat.app.AppCompatActivity;
-import androidx.lifecycle.LiveData;
+import androidx.lifecycle.ViewModelProvider;
 
 import com.example.voicefinance.databinding.ActivityStatisticsBinding;
 import com.github.mikephil.charting.animation.Easing;
 import com.github.mikephil.charting.components.Legend;
 import com.github.mikephil.charting.components.XAxis;
 import com.github.mikephil.charting.components.YAxis;
-import com.github.mikephil.charting.data.Entry;
 import com.github.mikephil.charting.data.LineData;
-import com.github.mikephil.charting.data.LineDataSet;
 import com.github.mikephil.charting.data.PieData;
 import com.github.mikephil.charting.data.PieDataSet;
 import com.github.mikephil.charting.data.PieEntry;
@@ -30,21 +28,14 @@ import com.github.mikephil.charting.highlight.Highlight;
 import com.github.mikephil.charting.listener.OnChartValueSelectedListener;
 import com.github.mikephil.charting.utils.ColorTemplate;
 
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.Collections;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Locale;
-import java.util.Map;
 
 public class StatisticsActivity extends AppCompatActivity {
 
     private ActivityStatisticsBinding binding;
-    private AppDatabase db;
 
-    private LiveData<List<TransactionDao.TrendPoint>> activeTrendLiveData;
+    private StatisticsViewModel viewModel;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -59,12 +50,16 @@ public class StatisticsActivity extends AppCompatActivity {
         if (getSupportActionBar() != null) getSupportActionBar().setDisplayHomeAsUpEnabled(true);
         binding.toolbar.setNavigationOnClickListener(v -> finish());
 
-        db = AppDatabase.getDatabase(this);
+        viewModel = new ViewModelProvider(this).get(StatisticsViewModel.class);
 
         setupPieChart();
         setupPieClick();
         setupTrendChart();
         setupPeriodSelector();
+
+        // Observed once; the ViewModel swaps the underlying query per period
+        viewModel.getPieTotals().observe(this, this::loadPie);
+        viewModel.getTrends().observe(this, this::drawTrends);
     }
 
     /* ---------------- PIE CHART ---------------- */
@@ -111,31 +106,21 @@ public class StatisticsActivity extends AppCompatActivity {
     /* ---------------- PERIOD SWITCH ---------------- */
 
     private void setupPeriodSelector() {
+        // After rotation the ViewModel already has a period: show it instead
+        // of the layout default, so no query is switched and back again
+        StatisticsViewModel.Period current = viewModel.getPeriod().getValue();
+        if (current == StatisticsViewModel.Period.DAILY) binding.toggleGroup.check(R.id.radio_daily);
+        else if (current == StatisticsViewModel.Period.YEARLY) binding.toggleGroup.check(R.id.radio_yearly);
+        else if (current == StatisticsViewModel.Period.MONTHLY) binding.toggleGroup.check(R.id.radio_monthly);
+
         binding.toggleGroup.setOnCheckedChangeListener((g, id) -> loadForPeriod(id));
         loadForPeriod(binding.toggleGroup.getCheckedRadioButtonId());
     }
 
     private void loadForPeriod(int id) {
-        // Pie chart gets data for the current period
-        long pieChartSince = getPieChartStartTime(id);
-        db.transactionDao()
-                .getExpenseTotalsByCategorySince(pieChartSince)
-                .observe(this, this::loadPie);
-
-        if (activeTrendLiveData != null) {
-            activeTrendLiveData.removeObservers(this);
-        }
-
-        // Line chart gets data for a trend window
-        long lineChartSince = getLineChartStartTime(id);
-        if (id == R.id.radio_daily) {
-            activeTrendLiveData = db.transactionDao().getDailyTrends(lineChartSince);
-        } else if (id == R.id.radio_yearly) {
-            activeTrendLiveData = db.transactionDao().getYearlyTrends(lineChartSince);
-        } else { // R.id.radio_monthly
-            activeTrendLiveData = db.transactionDao().getMonthlyTrends(lineChartSince);
-        }
-        activeTrendLiveData.observe(this, this::drawTrends);
+        if (id == R.id.radio_daily) viewModel.select(StatisticsViewModel.Period.DAILY);
+        else if (id == R.id.radio_yearly) viewModel.select(StatisticsViewModel.Period.YEARLY);
+        else viewModel.select(StatisticsViewModel.Period.MONTHLY);
     }
 
     /* ---------------- PIE DATA ---------------- */
@@ -147,10 +132,10 @@ public class StatisticsActivity extends AppCompatActivity {
                         == Configuration.UI_MODE_NIGHT_YES;
 
         List<PieEntry> entries = new ArrayList<>();
-        double total = 0;
+        long total = 0;
 
         for (TransactionDao.CategoryTotal t : totals) {
-            entries.add(new PieEntry((float) Math.abs(t.total), t.category));
+            entries.add(new PieEntry((float) Money.toMajor(Math.abs(t.total)), t.category));
             total += t.total;
         }
 
@@ -169,8 +154,8 @@ public class StatisticsActivity extends AppCompatActivity {
         binding.pieChart.invalidate();
     }
 
-    private SpannableString makeCenterText(double total) {
-        String amount = CurrencyUtils.getCurrencyInstance().format(Math.abs(total));
+    private SpannableString makeCenterText(long total) {
+        String amount = CurrencyUtils.formatMinor(Math.abs(total));
         SpannableString s = new SpannableString(amount + "\nTotal Expenses");
         s.setSpan(new RelativeSizeSpan(1.6f), 0, amount.length(), 0);
         s.setSpan(new StyleSpan(Typeface.BOLD), 0, amount.length(), 0);
@@ -200,52 +185,20 @@ public class StatisticsActivity extends AppCompatActivity {
         binding.trendsChart.getLegend().setTextColor(textColor);
     }
 
-    private void drawTrends(List<TransactionDao.TrendPoint> rows) {
-        if (rows == null) {
-            rows = Collections.emptyList();
-        }
-
-        final List<String> periods = generatePeriods();
-
+    private void drawTrends(TrendLines.Chart chart) {
         // This ensures the chart is always visible with a timeline, even if there is no data.
         binding.trendsChart.setVisibility(View.VISIBLE);
         binding.trendsChartTitle.setVisibility(View.VISIBLE);
 
-        Map<String, float[]> dataMap = new LinkedHashMap<>();
-        for (TransactionDao.TrendPoint r : rows) {
-            int x = periods.indexOf(r.period);
-            if (x == -1) continue;
-
-            float[] series = dataMap.get(r.category);
-            if (series == null) {
-                series = new float[periods.size()];
-                dataMap.put(r.category, series);
-            }
-            series[x] = (float) Math.abs(r.total);
-        }
+        // LineData was built by the ViewModel on a reader thread
+        applyTrends(chart.result, chart.data);
+    }
 
-        LineData data = new LineData();
-        int[] colors = ColorTemplate.MATERIAL_COLORS;
-        int i = 0;
+    private void applyTrends(TrendSeries.Result result, LineData data) {
+        final List<String> periods = result.periods;
 
-        if (dataMap.isEmpty()) {
+        if (result.isEmpty()) {
             binding.trendsChart.clear();
-        } else {
-            for (Map.Entry<String, float[]> e : dataMap.entrySet()) {
-                List<Entry> entries = new ArrayList<>();
-                float[] yValues = e.getValue();
-                for (int x = 0; x < yValues.length; x++) {
-                    entries.add(new Entry(x, yValues[x]));
-                }
-
-                LineDataSet set = new LineDataSet(entries, e.getKey());
-                int c = colors[i++ % colors.length];
-                set.setColor(c);
-                set.setCircleColor(c);
-                set.setLineWidth(2f);
-                set.setDrawValues(false);
-                data.addDataSet(set);
-            }
         }
 
         XAxis xAxis = binding.trendsChart.getXAxis();
@@ -270,61 +223,4 @@ public class StatisticsActivity extends AppCompatActivity {
         binding.trendsChart.setData(data);
         binding.trendsChart.invalidate();
     }
-
-    private List<String> generatePeriods() {
-        List<String> periods = new ArrayList<>();
-        int checkedId = binding.toggleGroup.getCheckedRadioButtonId();
-        long since = getLineChartStartTime(checkedId);
-
-        Calendar cal = Calendar.getInstance();
-        cal.setTimeInMillis(since);
-
-        Calendar endCal = Calendar.getInstance();
-
-        SimpleDateFormat fmt;
-        int calendarField;
-
-        if (checkedId == R.id.radio_daily) {
-            fmt = new SimpleDateFormat("yyyy-MM-dd", Locale.US);
-            calendarField = Calendar.DAY_OF_YEAR;
-        } else if (checkedId == R.id.radio_monthly) {
-            fmt = new SimpleDateFormat("yyyy-MM", Locale.US);
-            calendarField = Calendar.MONTH;
-            cal.set(Calendar.DAY_OF_MONTH, 1); // Normalize to start of month
-        } else { // R.id.radio_yearly
-            fmt = new SimpleDateFormat("yyyy", Locale.US);
-            calendarField = Calendar.YEAR;
-            cal.set(Calendar.DAY_OF_YEAR, 1); // Normalize to start of year
-        }
-
-        while (cal.before(endCal) || cal.equals(endCal)) {
-            periods.add(fmt.format(cal.getTime()));
-            cal.add(calendarField, 1);
-        }
-
-        return periods;
-    }
-
-    private long getPieChartStartTime(int id) {
-        Calendar c = Calendar.getInstance();
-        c.set(Calendar.HOUR_OF_DAY, 0);
-        c.set(Calendar.MINUTE, 0);
-        c.set(Calendar.SECOND, 0);
-        c.set(Calendar.MILLISECOND, 0);
-
-        if (id == R.id.radio_monthly) {
-            c.set(Calendar.DAY_OF_MONTH, 1);
-        } else if (id == R.id.radio_yearly) {
-            c.set(Calendar.DAY_OF_YEAR, 1);
-        }
-        return c.getTimeInMillis();
-    }
-
-    private long getLineChartStartTime(int id) {
-        Calendar c = Calendar.getInstance();
-        if (id == R.id.radio_daily) c.add(Calendar.DAY_OF_YEAR, -29); // 30 days
-        else if (id == R.id.radio_yearly) c.add(Calendar.YEAR, -4); // 5 years
-        else c.add(Calendar.MONTH, -11); // 12 months
-        return c.getTimeInMillis();
-    }
 }
@@ -0,0 +1,282 @@
+package com.example.voicefinance;
+
+import android.app.Application;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.AndroidViewModel;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.lifecycle.Transformations;
+import androidx.room.InvalidationTracker;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Statistics screen state, kept across configuration changes.
+ *
+ * The selected period drives one switchMap per chart, so exactly one
+ * query per chart is live at any time: switching period drops the old
+ * query instead of stacking observers, and rotation re-delivers the last
+ * results without querying again. Results come from LedgerRepository, so
+ * switching back to a period reuses its cached rows unless a write landed
+ * in its window. Trend rows are turned into series and chart data on a
+ * reader thread (TrendSeries.build, TrendLines.build) before they reach
+ * the activity; the monthly trend also gets PROJECTED_MONTHS of recurring
+ * expenses, projected from the active rules at build time rather than
+ * stored. Projections start with next month and stay a separate series,
+ * so the current month only ever shows recorded amounts.
+ *
+ * Every emission is checked against the number of daily_rollup
+ * invalidations (one per committed ledger write) and logged under
+ * "StatisticsQueries", so a write that re-runs a chart twice is visible.
+ */
+public class StatisticsViewModel extends AndroidViewModel {
+
+    public enum Period { DAILY, MONTHLY, YEARLY }
+
+    // Lines drawn individually; smaller categories are summed into "Other"
+    static final int TOP_TREND_CATEGORIES = 6;
+
+    // Future months shown on the monthly trend when recurring rules exist
+    static final int PROJECTED_MONTHS = 3;
+
+    private static final String TAG = "StatisticsQueries";
+
+    private final AppDatabase db;
+    private final LedgerRepository repository;
+    private final MutableLiveData<Period> period = new MutableLiveData<>();
+
+    private final LiveData<List<TransactionDao.CategoryTotal>> pieTotals;
+    private final MediatorLiveData<TrendLines.Chart> trends = new MediatorLiveData<>();
+    private final AtomicInteger trendGeneration = new AtomicInteger();
+
+    // ---- main-thread inputs of buildTrends ----
+    private List<TransactionDao.TrendPoint> trendRows;     // null until the period's rows arrive
+    private List<RecurringDao.ActiveRule> activeRules = Collections.emptyList();
+
+    private final AtomicInteger invalidations = new AtomicInteger();
+    private final QueryCounter pieCounter = new QueryCounter("pie");
+    private final QueryCounter trendCounter = new QueryCounter("trend");
+
+    private final InvalidationTracker.Observer writeObserver =
+            new InvalidationTracker.Observer("daily_rollup") {
+                @Override
+                public void onInvalidated(@NonNull Set<String> tables) {
+                    invalidations.incrementAndGet();
+                }
+            };
+
+    public StatisticsViewModel(@NonNull Application application) {
+        super(application);
+        db = AppDatabase.getDatabase(application);
+        db.getInvalidationTracker().addObserver(writeObserver);
+        repository = LedgerRepository.get(application);
+
+        pieTotals = Transformations.switchMap(period, p -> {
+            pieCounter.reset();
+            return Transformations.map(
+                    repository.getExpenseTotalsByCategorySince(pieSince(p)),
+                    rows -> {
+                        pieCounter.onEmission();
+                        return rows;
+                    });
+        });
+
+        LiveData<List<TransactionDao.TrendPoint>> periodRows = Transformations.switchMap(period, p -> {
+            trendCounter.reset();
+            trendRows = null;
+            long since = trendSince(p);
+            LiveData<List<TransactionDao.TrendPoint>> rows =
+                    p == Period.DAILY ? repository.getDailyTrends(since)
+                            : p == Period.YEARLY ? repository.getYearlyTrends(since)
+                            : repository.getMonthlyTrends(since);
+            return Transformations.map(rows, r -> {
+                trendCounter.onEmission();
+                return r;
+            });
+        });
+        trends.addSource(periodRows, rows -> {
+            trendRows = rows == null ? Collections.<TransactionDao.TrendPoint>emptyList() : rows;
+            buildTrends();
+        });
+        trends.addSource(db.recurringDao().getActiveRules(), rules -> {
+            activeRules = rules == null ? Collections.<RecurringDao.ActiveRule>emptyList() : rules;
+            buildTrends();
+        });
+    }
+
+    // No-op when the period is already selected (e.g. restored after rotation)
+    public void select(Period p) {
+        if (p != period.getValue()) period.setValue(p);
+    }
+
+    public LiveData<Period> getPeriod() {
+        return period;
+    }
+
+    public LiveData<List<TransactionDao.CategoryTotal>> getPieTotals() {
+        return pieTotals;
+    }
+
+    public LiveData<TrendLines.Chart> getTrends() {
+        return trends;
+    }
+
+    // Start of the pie chart's window: today, this month or this year
+    public static long pieSince(Period p) {
+        Calendar c = Calendar.getInstance();
+        c.set(Calendar.HOUR_OF_DAY, 0);
+        c.set(Calendar.MINUTE, 0);
+        c.set(Calendar.SECOND, 0);
+        c.set(Calendar.MILLISECOND, 0);
+
+        if (p == Period.MONTHLY) {
+            c.set(Calendar.DAY_OF_MONTH, 1);
+        } else if (p == Period.YEARLY) {
+            c.set(Calendar.DAY_OF_YEAR, 1);
+        }
+        return c.getTimeInMillis();
+    }
+
+    // Start of the trend window: 30 days, 12 months or 5 years back, at
+    // midnight so the repository sees the same window all day
+    public static long trendSince(Period p) {
+        Calendar c = Calendar.getInstance();
+        c.set(Calendar.HOUR_OF_DAY, 0);
+        c.set(Calendar.MINUTE, 0);
+        c.set(Calendar.SECOND, 0);
+        c.set(Calendar.MILLISECOND, 0);
+        if (p == Period.DAILY) c.add(Calendar.DAY_OF_YEAR, -29);
+        else if (p == Period.YEARLY) c.add(Calendar.YEAR, -4);
+        else c.add(Calendar.MONTH, -11);
+        return c.getTimeInMillis();
+    }
+
+    private void buildTrends() {
+        Period p = period.getValue();
+        List<TransactionDao.TrendPoint> points = trendRows;
+        if (p == null || points == null) return;
+
+        List<RecurringDao.ActiveRule> rules = activeRules;
+        int generation = trendGeneration.incrementAndGet();
+
+        AppDatabase.databaseReadExecutor.execute(() -> {
+            List<String> periods = periodsFor(p);
+            int firstProjected = periods.size();
+            List<TrendSeries.Row> projected = Collections.emptyList();
+            if (p == Period.MONTHLY && !rules.isEmpty()) {
+                addProjectedMonths(periods);
+                projected = Recurrence.projectMonthlyExpenses(rules,
+                        startOfMonth(1) - 1, startOfMonth(PROJECTED_MONTHS + 1) - 1);
+            }
+
+            TrendLines.Chart chart = TrendLines.build(TrendSeries.build(
+                    periods, points, projected, firstProjected, TOP_TREND_CATEGORIES));
+            // Dropped if a newer period or newer rows arrived meanwhile
+            if (generation == trendGeneration.get()) trends.postValue(chart);
+        });
+    }
+
+    // Every x-axis slot of the trend window, formatted like the query's period column
+    static List<String> periodsFor(Period p) {
+        List<String> periods = new ArrayList<>();
+
+        Calendar cal = Calendar.getInstance();
+        cal.setTimeInMillis(trendSince(p));
+        Calendar endCal = Calendar.getInstance();
+
+        SimpleDateFormat fmt;
+        int calendarField;
+
+        if (p == Period.DAILY) {
+            fmt = new SimpleDateFormat("yyyy-MM-dd", Locale.US);
+            calendarField = Calendar.DAY_OF_YEAR;
+        } else if (p == Period.MONTHLY) {
+            fmt = new SimpleDateFormat("yyyy-MM", Locale.US);
+            calendarField = Calendar.MONTH;
+            cal.set(Calendar.DAY_OF_MONTH, 1); // Normalize to start of month
+        } else {
+            fmt = new SimpleDateFormat("yyyy", Locale.US);
+            calendarField = Calendar.YEAR;
+            cal.set(Calendar.DAY_OF_YEAR, 1); // Normalize to start of year
+        }
+
+        while (cal.before(endCal) || cal.equals(endCal)) {
+            periods.add(fmt.format(cal.getTime()));
+            cal.add(calendarField, 1);
+        }
+        return periods;
+    }
+
+    // Appends the next PROJECTED_MONTHS months
+    private static void addProjectedMonths(List<String> periods) {
+        SimpleDateFormat fmt = new SimpleDateFormat("yyyy-MM", Locale.US);
+        for (int i = 1; i <= PROJECTED_MONTHS; i++) {
+            periods.add(fmt.format(new Date(startOfMonth(i))));
+        }
+    }
+
+    // Midnight on the 1st, months after the current one
+    private static long startOfMonth(int monthsAhead) {
+        Calendar cal = Calendar.getInstance();
+        cal.set(Calendar.DAY_OF_MONTH, 1);
+        cal.set(Calendar.HOUR_OF_DAY, 0);
+        cal.set(Calendar.MINUTE, 0);
+        cal.set(Calendar.SECOND, 0);
+        cal.set(Calendar.MILLISECOND, 0);
+        cal.add(Calendar.MONTH, monthsAhead);
+        return cal.getTimeInMillis();
+    }
+
+    @Override
+    protected void onCleared() {
+        db.getInvalidationTracker().removeObserver(writeObserver);
+    }
+
+    // ------------------------------------------------
+    // RE-QUERY METRICS
+    // One emission per chart per invalidation is expected; anything more
+    // means a query is attached twice or re-run without a write.
+    // ------------------------------------------------
+    private final class QueryCounter {
+        private final String chart;
+        private int queries;
+        private int duplicates;
+        private int lastInvalidation = -1;
+
+        QueryCounter(String chart) {
+            this.chart = chart;
+        }
+
+        // New query selected: its first emission is the initial (or cached) result
+        void reset() {
+            lastInvalidation = -1;
+        }
+
+        void onEmission() {
+            int seen = invalidations.get();
+            queries++;
+
+            if (lastInvalidation < 0) {
+                Log.d(TAG, chart + ": initial result (" + queries + " total)");
+            } else if (seen == lastInvalidation) {
+                duplicates++;
+                Log.w(TAG, chart + ": re-query without a write (" + duplicates + " so far)");
+            } else {
+                Log.d(TAG, chart + ": 1 re-query for " + (seen - lastInvalidation)
+                        + " write(s) (" + queries + " total)");
+            }
+            lastInvalidation = seen;
+        }
+    }
+}
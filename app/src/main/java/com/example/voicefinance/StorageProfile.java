@@ -0,0 +1,77 @@
+package com.example.voicefinance;
+
+import android.database.Cursor;
+
+import androidx.annotation.NonNull;
+import androidx.room.RoomDatabase;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+
+/**
+ * Storage tuning for transaction_database, applied when the database opens.
+ *
+ * WAL lets the history/statistics screens keep reading while a voice entry
+ * commits. synchronous=NORMAL only fsyncs the WAL at checkpoints.
+ * WalCheckpointScheduler runs passive checkpoints on the writer thread
+ * between batches, so the WAL rarely reaches SQLite's auto-checkpoint
+ * threshold inside a user-visible commit; the auto-checkpoint stays on as
+ * the backstop for writes that never call noteCommit().
+ *
+ * The pragmas are per connection and Room's onOpen only sees the primary
+ * one, which does every write: synchronous applies in full, but cache_size
+ * and mmap_size only speed up the reads on that connection. The read-only
+ * connections Android's pool opens for concurrent WAL readers keep SQLite's
+ * defaults, as the framework gives no hook to configure them.
+ */
+public enum StorageProfile {
+
+    // Default: WAL, fsync at checkpoints, 64 MB mmap, 8 MB cache
+    BALANCED(RoomDatabase.JournalMode.WRITE_AHEAD_LOGGING, "NORMAL",
+            64L * 1024 * 1024, 8 * 1024, 64),
+
+    // WAL but fsync on every commit; no mmap
+    DURABLE(RoomDatabase.JournalMode.WRITE_AHEAD_LOGGING, "FULL",
+            0, 2 * 1024, 16),
+
+    // Rollback journal, SQLite defaults; baseline for comparisons
+    LEGACY(RoomDatabase.JournalMode.TRUNCATE, "FULL",
+            0, 2 * 1024, 0);
+
+    public final RoomDatabase.JournalMode journalMode;
+    public final String synchronous;
+    public final long mmapSizeBytes;
+    public final int cacheSizeKb;
+    // Passive checkpoint after this many commits, ahead of SQLite's own; 0 for none
+    public final int checkpointEveryCommits;
+
+    StorageProfile(RoomDatabase.JournalMode journalMode, String synchronous,
+                   long mmapSizeBytes, int cacheSizeKb, int checkpointEveryCommits) {
+        this.journalMode = journalMode;
+        this.synchronous = synchronous;
+        this.mmapSizeBytes = mmapSizeBytes;
+        this.cacheSizeKb = cacheSizeKb;
+        this.checkpointEveryCommits = checkpointEveryCommits;
+    }
+
+    public boolean usesWal() {
+        return journalMode == RoomDatabase.JournalMode.WRITE_AHEAD_LOGGING;
+    }
+
+    // Applies the per-connection pragmas to the primary (writing) connection
+    public RoomDatabase.Callback callback() {
+        return new RoomDatabase.Callback() {
+            @Override
+            public void onOpen(@NonNull SupportSQLiteDatabase db) {
+                // Some pragmas return a row, so run them all as queries
+                pragma(db, "PRAGMA synchronous = " + synchronous);
+                pragma(db, "PRAGMA cache_size = -" + cacheSizeKb);
+                pragma(db, "PRAGMA mmap_size = " + mmapSizeBytes);
+            }
+        };
+    }
+
+    private static void pragma(SupportSQLiteDatabase db, String sql) {
+        try (Cursor c = db.query(sql)) {
+            c.moveToFirst();
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.example.voicefinance;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * Maps epoch millis to integer bucket ids in the device time zone:
+ *   DAY   -> local epoch day (days since 1970-01-01)
+ *   WEEK  -> Monday-based week index, (epochDay + 3) / 7
+ *   MONTH -> year * 12 + month (0-based)
+ *   YEAR  -> year
+ *
+ * The zone's UTC offsets are tabulated once (DST transitions included), so
+ * bucketOf() is a binary search plus integer arithmetic and allocates
+ * nothing. Labels are formatted per bucket, not per row, and cached.
+ *
+ * Instances are immutable apart from the synchronized label cache and are
+ * safe to use from any thread. get() returns a new instance when the
+ * default zone or locale changes.
+ */
+public final class TimeBuckets {
+
+    // Never a valid bucket id; "no previous bucket"
+    public static final int NONE = Integer.MIN_VALUE;
+
+    private static final long DAY_MS = 24L * 60 * 60 * 1000;
+
+    // Offsets are tabulated for this span; outside it the TimeZone is asked directly
+    private static final int FIRST_YEAR = 1990;
+    private static final int LAST_YEAR = 2070;
+
+    private static final int MAX_CACHED_LABELS = 1024;
+
+    private static volatile TimeBuckets current;
+
+    private final TimeZone zone;
+    private final Locale locale;
+
+    private final long tableStart;
+    private final long tableEnd;
+    // offsets[i] applies before transitions[i], offsets[i + 1] from it on
+    private final long[] transitions;
+    private final int[] offsets;
+
+    private final SimpleDateFormat dayFormat;
+    private final SimpleDateFormat weekStartFormat;
+    private final SimpleDateFormat weekEndFormat;
+    private final SimpleDateFormat monthFormat;
+    private final SimpleDateFormat yearFormat;
+    private final Map<Long, String> labels = new HashMap<>();
+
+    public static TimeBuckets get() {
+        TimeZone zone = TimeZone.getDefault();
+        Locale locale = Locale.getDefault();
+
+        TimeBuckets buckets = current;
+        if (buckets == null
+                || !buckets.zone.getID().equals(zone.getID())
+                || !buckets.locale.equals(locale)) {
+            buckets = new TimeBuckets(zone, locale);
+            current = buckets;
+        }
+        return buckets;
+    }
+
+    private TimeBuckets(TimeZone zone, Locale locale) {
+        this.zone = zone;
+        this.locale = locale;
+
+        tableStart = epochDayOf(FIRST_YEAR, Calendar.JANUARY, 1) * DAY_MS;
+        tableEnd = epochDayOf(LAST_YEAR + 1, Calendar.JANUARY, 1) * DAY_MS;
+
+        // Sample once a day and bisect to the millisecond wherever the offset changed
+        List<Long> foundTransitions = new ArrayList<>();
+        List<Integer> foundOffsets = new ArrayList<>();
+
+        long t = tableStart;
+        int offset = zone.getOffset(t);
+        foundOffsets.add(offset);
+
+        while (t < tableEnd) {
+            long next = Math.min(t + DAY_MS, tableEnd);
+            if (zone.getOffset(next) == offset) {
+                t = next;
+                continue;
+            }
+
+            long lo = t;
+            long hi = next;
+            while (hi - lo > 1) {
+                long mid = (lo + hi) >>> 1;
+                if (zone.getOffset(mid) == offset) lo = mid;
+                else hi = mid;
+            }
+
+            // Continue from the transition, in case another one falls on the same day
+            t = hi;
+            offset = zone.getOffset(hi);
+            foundTransitions.add(hi);
+            foundOffsets.add(offset);
+        }
+
+        transitions = new long[foundTransitions.size()];
+        offsets = new int[foundOffsets.size()];
+        for (int i = 0; i < transitions.length; i++) transitions[i] = foundTransitions.get(i);
+        for (int i = 0; i < offsets.length; i++) offsets[i] = foundOffsets.get(i);
+
+        dayFormat = format("MMM d · EEEE");
+        weekStartFormat = format("MMM d");
+        weekEndFormat = format("MMM d, yyyy");
+        monthFormat = format("MMMM yyyy");
+        yearFormat = format("yyyy");
+    }
+
+    private SimpleDateFormat format(String pattern) {
+        SimpleDateFormat f = new SimpleDateFormat(pattern, locale);
+        f.setTimeZone(zone);
+        return f;
+    }
+
+    // ------------------------------------------------
+    // MILLIS -> BUCKET
+    // ------------------------------------------------
+    public int bucketOf(long millis, HistoryFilterType type) {
+        int epochDay = epochDay(millis);
+
+        if (type == HistoryFilterType.WEEK) {
+            return weekOfEpochDay(epochDay);
+        } else if (type == HistoryFilterType.MONTH) {
+            int ymd = civil(epochDay);
+            return (ymd / 10000) * 12 + (ymd / 100 % 100 - 1);
+        } else if (type == HistoryFilterType.YEAR) {
+            return civil(epochDay) / 10000;
+        }
+        return epochDay;
+    }
+
+    // Local epoch day of millis
+    public int epochDay(long millis) {
+        return (int) Math.floorDiv(millis + offsetAt(millis), DAY_MS);
+    }
+
+    // yyyyMMdd in local time, e.g. 20250107
+    public int dayKey(long millis) {
+        return civil(epochDay(millis));
+    }
+
+    public int offsetAt(long millis) {
+        if (millis < tableStart || millis >= tableEnd) {
+            return zone.getOffset(millis);
+        }
+
+        // Number of transitions at or before millis
+        int lo = 0;
+        int hi = transitions.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (transitions[mid] <= millis) lo = mid + 1;
+            else hi = mid;
+        }
+        return offsets[lo];
+    }
+
+    // ------------------------------------------------
+    // BUCKET -> WINDOW
+    // ------------------------------------------------
+
+    // First instant of the bucket; the bucket ends where bucket + 1 starts
+    public long startOf(int bucket, HistoryFilterType type) {
+        return startOfEpochDay(firstEpochDay(bucket, type));
+    }
+
+    // [start, end) of the bucket containing millis
+    public long[] window(long millis, HistoryFilterType type) {
+        int bucket = bucketOf(millis, type);
+        return new long[]{startOf(bucket, type), startOf(bucket + 1, type)};
+    }
+
+    public long startOfEpochDay(int epochDay) {
+        long local = epochDay * DAY_MS;
+        long utc = local - offsetAt(local - offsetAt(local));
+        if (epochDay(utc) == epochDay) return utc;
+
+        // Midnight falls in a DST gap on this day; let Calendar settle it
+        int ymd = civil(epochDay);
+        Calendar cal = Calendar.getInstance(zone, locale);
+        cal.clear();
+        cal.set(ymd / 10000, ymd / 100 % 100 - 1, ymd % 100, 0, 0, 0);
+        return cal.getTimeInMillis();
+    }
+
+    // Local epoch day the bucket starts on
+    public static int firstEpochDay(int bucket, HistoryFilterType type) {
+        if (type == HistoryFilterType.WEEK) {
+            return bucket * 7 - 3;
+        } else if (type == HistoryFilterType.MONTH) {
+            return epochDayOf(Math.floorDiv(bucket, 12), Math.floorMod(bucket, 12), 1);
+        } else if (type == HistoryFilterType.YEAR) {
+            return epochDayOf(bucket, Calendar.JANUARY, 1);
+        }
+        return bucket;
+    }
+
+    // ------------------------------------------------
+    // LABELS (one format per bucket)
+    // ------------------------------------------------
+    public synchronized String label(int bucket, HistoryFilterType type) {
+        Long key = ((long) type.ordinal() << 32) | (bucket & 0xffffffffL);
+        String label = labels.get(key);
+        if (label != null) return label;
+
+        int firstDay = firstEpochDay(bucket, type);
+        Date start = new Date(startOfEpochDay(firstDay));
+
+        if (type == HistoryFilterType.WEEK) {
+            Date end = new Date(startOfEpochDay(firstDay + 6));
+            label = weekStartFormat.format(start) + "–" + weekEndFormat.format(end);
+        } else if (type == HistoryFilterType.MONTH) {
+            label = monthFormat.format(start);
+        } else if (type == HistoryFilterType.YEAR) {
+            label = yearFormat.format(start);
+        } else {
+            label = dayFormat.format(start);
+        }
+
+        if (labels.size() >= MAX_CACHED_LABELS) labels.clear();
+        labels.put(key, label);
+        return label;
+    }
+
+    // ------------------------------------------------
+    // CIVIL CALENDAR ARITHMETIC (proleptic Gregorian)
+    // ------------------------------------------------
+
+    // Monday-based; epoch day 0 is a Thursday
+    public static int weekOfEpochDay(int epochDay) {
+        return Math.floorDiv(epochDay + 3, 7);
+    }
+
+    // month is 0-based like Calendar.MONTH
+    public static int epochDayOf(int year, int month, int day) {
+        int m = month + 1;
+        int y = m <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yoe = y - era * 400;
+        int doy = (153 * (m > 2 ? m - 3 : m + 9) + 2) / 5 + day - 1;
+        int doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return era * 146097 + doe - 719468;
+    }
+
+    // yyyyMMdd of an epoch day
+    public static int civil(int epochDay) {
+        int z = epochDay + 719468;
+        int era = Math.floorDiv(z, 146097);
+        int doe = z - era * 146097;
+        int yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        int doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        int mp = (5 * doy + 2) / 153;
+        int day = doy - (153 * mp + 2) / 5 + 1;
+        int month = mp < 10 ? mp + 3 : mp - 9;
+        int year = yoe + era * 400 + (month <= 2 ? 1 : 0);
+        return year * 10000 + month * 100 + day;
+    }
+}
@@ -2,22 +2,51 @@ package com.example.voicefinance;
 
 import androidx.room.ColumnInfo;
 import androidx.room.Entity;
+import androidx.room.ForeignKey;
+import androidx.room.Ignore;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 import androidx.room.TypeConverters;
 
 import org.jetbrains.annotations.Nullable;
 
-@Entity(tableName = "transactions")
+@Entity(
+        tableName = "transactions",
+        foreignKeys = @ForeignKey(
+                entity = Category.class,
+                parentColumns = "id",
+                childColumns = "category_id"
+        ),
+        indices = {
+                @Index("timestamp"),
+                @Index({"category_id", "month_key"})
+        }
+)
 public class Transaction {
 
     @PrimaryKey(autoGenerate = true)
     public int id;
 
     public String label;
-    public double amount;
+    public long amount;     // minor units (paisa), negative for expenses
     public long timestamp;
 
+    // Local calendar keys derived from timestamp (see refreshDateKeys)
+    @ColumnInfo(name = "day_key")
+    public int dayKey;      // yyyyMMdd
 
+    @ColumnInfo(name = "month_key")
+    public int monthKey;    // yyyyMM
+
+    @ColumnInfo(name = "year_key")
+    public int yearKey;     // yyyy
+
+    @ColumnInfo(name = "category_id")
+    public int categoryId;
+
+    // Category name for writes: LedgerWriter maps it to categoryId.
+    // Not stored; LedgerWriter fills it in on rows it reads back.
+    @Ignore
     public String category;
 
     @ColumnInfo(name = "created_at")
@@ -30,12 +59,34 @@ public class Transaction {
     @TypeConverters(Converters.class)
     public TransactionType type;
 
-    public Transaction(String label, double amount, long timestamp, String category, TransactionType type) {
+    // Used by Room
+    public Transaction() {
+    }
+
+    @Ignore
+    public Transaction(String label, long amount, long timestamp, String category, TransactionType type) {
         this.label = label;
         this.amount = amount;
         this.timestamp = timestamp;
+        refreshDateKeys();
         this.createdAt = System.currentTimeMillis();
         this.category = category;
         this.type = type;
     }
+
+    public Transaction copy() {
+        Transaction c = new Transaction(label, amount, timestamp, category, type);
+        c.id = id;
+        c.categoryId = categoryId;
+        c.createdAt = createdAt;
+        c.updatedAt = updatedAt;
+        return c;
+    }
+
+    // Must be called whenever timestamp changes
+    public void refreshDateKeys() {
+        dayKey = DateKeys.dayKey(timestamp);
+        monthKey = dayKey / 100;
+        yearKey = dayKey / 10000;
+    }
 }
@@ -73,7 +73,7 @@ public class TransactionAdapter
 
         holder.binding.label.setText(t.label);
         holder.binding.amount.setText(
-                NumberFormat.getCurrencyInstance().format(t.amount)
+                NumberFormat.getCurrencyInstance().format(Money.toMajor(t.amount))
         );
 
         holder.itemView.setOnLongClickListener(v -> {
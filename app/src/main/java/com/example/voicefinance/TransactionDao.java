@@ -1,5 +1,7 @@
 package com.example.voicefinance;
 
+import android.database.Cursor;
+
 import androidx.lifecycle.LiveData;
 import androidx.room.Dao;
 import androidx.room.Delete;
@@ -25,72 +27,176 @@ public interface TransactionDao {
     @Delete
     void delete(Transaction transaction);
 
+    @Query("SELECT * FROM transactions WHERE id = :id")
+    Transaction getById(int id);
+
+    /* ---------------------------------------------------
+     * BULK CRUD (wrapped in one transaction by LedgerWriter)
+     * --------------------------------------------------- */
+
+    @Insert
+    void insertAll(List<Transaction> transactions);
+
+    @Update
+    void updateAll(List<Transaction> transactions);
+
+    @Delete
+    void deleteAll(List<Transaction> transactions);
+
+    @Query("SELECT * FROM transactions WHERE id IN (:ids)")
+    List<Transaction> getByIds(List<Integer> ids);
+
     /* ---------------------------------------------------
      * CANONICAL TRANSACTION LIST
      * --------------------------------------------------- */
 
-    @Query("SELECT * FROM transactions ORDER BY timestamp DESC")
-    LiveData<List<Transaction>> getAllTransactionsOrdered();
+    // Streaming export with the category name as "category": caller closes the cursor
+    @Query(
+            "SELECT transactions.*, categories.name AS category FROM transactions " +
+                    "LEFT JOIN categories ON categories.id = transactions.category_id " +
+                    "ORDER BY transactions.timestamp ASC, transactions.id ASC"
+    )
+    Cursor getAllOrderedCursor();
 
     /* ---------------------------------------------------
-     * RELATIVE ANALYTICS (PIE CHART)
+     * PERIOD WINDOW (HISTORY)
+     * [start, end) in epoch millis, served by index_transactions_timestamp
      * --------------------------------------------------- */
 
+    // Keyset pages inside the window, newest first.
+    // Cursor is the (timestamp, id) of the last row of the previous page.
     @Query(
-            "SELECT category, SUM(amount) AS total " +
-                    "FROM transactions " +
-                    "WHERE amount < 0 AND timestamp >= :since " +
-                    "GROUP BY category"
+            "SELECT * FROM transactions " +
+                    "WHERE timestamp >= :start AND timestamp < :end " +
+                    "AND (timestamp < :cursorTimestamp " +
+                    "OR (timestamp = :cursorTimestamp AND id < :cursorId)) " +
+                    "ORDER BY timestamp DESC, id DESC " +
+                    "LIMIT :limit"
+    )
+    List<Transaction> getPageBefore(long start, long end,
+                                    long cursorTimestamp, int cursorId, int limit);
+
+    // Same window walked oldest first, used to re-read pages above the loaded range.
+    // Cursor is the (timestamp, id) of the first loaded row.
+    @Query(
+            "SELECT * FROM transactions " +
+                    "WHERE timestamp >= :start AND timestamp < :end " +
+                    "AND (timestamp > :cursorTimestamp " +
+                    "OR (timestamp = :cursorTimestamp AND id > :cursorId)) " +
+                    "ORDER BY timestamp ASC, id ASC " +
+                    "LIMIT :limit"
     )
-    LiveData<List<CategoryTotal>> getExpenseTotalsByCategorySince(long since);
+    List<Transaction> getPageAfter(long start, long end,
+                                   long cursorTimestamp, int cursorId, int limit);
 
     /* ---------------------------------------------------
-     * MONTHLY SUMMARY
+     * FULL-TEXT SEARCH (transactions_fts, categories_fts)
+     * :match is an FTS prefix expression, see HistoryUtils.toFtsMatch.
+     * A row matches on its label or on its category's name.
      * --------------------------------------------------- */
 
     @Query(
-            "SELECT IFNULL(SUM(amount),0) FROM transactions " +
-                    "WHERE amount > 0 " +
-                    "AND strftime('%Y', timestamp/1000, 'unixepoch', 'localtime') = :year " +
-                    "AND strftime('%m', timestamp/1000, 'unixepoch', 'localtime') = :month"
+            "SELECT * FROM transactions " +
+                    "WHERE (id IN (SELECT docid FROM transactions_fts WHERE transactions_fts MATCH :match) " +
+                    "OR category_id IN (SELECT docid FROM categories_fts WHERE categories_fts MATCH :match)) " +
+                    "AND timestamp >= :start AND timestamp < :end " +
+                    "AND (timestamp < :cursorTimestamp " +
+                    "OR (timestamp = :cursorTimestamp AND id < :cursorId)) " +
+                    "ORDER BY timestamp DESC, id DESC " +
+                    "LIMIT :limit"
     )
-    LiveData<Double> getMonthlyIncome(String year, String month);
+    List<Transaction> searchPageBefore(String match, long start, long end,
+                                       long cursorTimestamp, int cursorId, int limit);
 
     @Query(
-            "SELECT IFNULL(SUM(amount),0) FROM transactions " +
-                    "WHERE amount < 0 " +
-                    "AND strftime('%Y', timestamp/1000, 'unixepoch', 'localtime') = :year " +
-                    "AND strftime('%m', timestamp/1000, 'unixepoch', 'localtime') = :month"
+            "SELECT * FROM transactions " +
+                    "WHERE (id IN (SELECT docid FROM transactions_fts WHERE transactions_fts MATCH :match) " +
+                    "OR category_id IN (SELECT docid FROM categories_fts WHERE categories_fts MATCH :match)) " +
+                    "AND timestamp >= :start AND timestamp < :end " +
+                    "AND (timestamp > :cursorTimestamp " +
+                    "OR (timestamp = :cursorTimestamp AND id > :cursorId)) " +
+                    "ORDER BY timestamp ASC, id ASC " +
+                    "LIMIT :limit"
     )
-    LiveData<Double> getMonthlyExpense(String year, String month);
+    List<Transaction> searchPageAfter(String match, long start, long end,
+                                      long cursorTimestamp, int cursorId, int limit);
 
+    // Expenses among the matching rows, for the history headers while searching
     @Query(
             "SELECT IFNULL(SUM(amount),0) FROM transactions " +
-                    "WHERE amount < 0 " +
-                    "AND strftime('%Y-%m', timestamp/1000, 'unixepoch', 'localtime') = " +
-                    "strftime('%Y-%m','now', 'localtime')"
+                    "WHERE (id IN (SELECT docid FROM transactions_fts WHERE transactions_fts MATCH :match) " +
+                    "OR category_id IN (SELECT docid FROM categories_fts WHERE categories_fts MATCH :match)) " +
+                    "AND timestamp >= :start AND timestamp < :end AND amount < 0"
+    )
+    long searchExpenseBetween(String match, long start, long end);
+
+    /* ---------------------------------------------------
+     * RELATIVE ANALYTICS (PIE CHART)
+     * Read from daily_rollup; the strftime on :since runs once per query.
+     * Grouped on category_id, names joined for the final rows only.
+     * Observed through LedgerRepository, which caches it per window.
+     * --------------------------------------------------- */
+
+    @Query(
+            "SELECT categories.name AS category, t.total FROM (" +
+                    "SELECT category_id, SUM(total) AS total " +
+                    "FROM daily_rollup " +
+                    "WHERE sign = -1 " +
+                    "AND day_key >= CAST(strftime('%Y%m%d', :since/1000, 'unixepoch', 'localtime') AS INTEGER) " +
+                    "GROUP BY category_id" +
+                    ") AS t JOIN categories ON categories.id = t.category_id"
     )
-    LiveData<Double> getCurrentMonthExpense();
+    List<CategoryTotal> getExpenseTotalsByCategorySince(long since);
 
     /* ---------------------------------------------------
-     * CATEGORY DRILL-DOWN
+     * MONTHLY SUMMARY (daily_rollup)
+     * --------------------------------------------------- */
+
+    @Query(
+            "SELECT IFNULL(SUM(total),0) FROM daily_rollup " +
+                    "WHERE sign = 1 " +
+                    "AND day_key BETWEEN CAST(:year || :month || '01' AS INTEGER) " +
+                    "AND CAST(:year || :month || '31' AS INTEGER)"
+    )
+    LiveData<Long> getMonthlyIncome(String year, String month);
+
+    @Query(
+            "SELECT IFNULL(SUM(total),0) FROM daily_rollup " +
+                    "WHERE sign = -1 " +
+                    "AND day_key BETWEEN CAST(:year || :month || '01' AS INTEGER) " +
+                    "AND CAST(:year || :month || '31' AS INTEGER)"
+    )
+    LiveData<Long> getMonthlyExpense(String year, String month);
+
+    @Query(
+            "SELECT IFNULL(SUM(total),0) FROM daily_rollup " +
+                    "WHERE sign = -1 " +
+                    "AND day_key BETWEEN CAST(strftime('%Y%m01', 'now', 'localtime') AS INTEGER) " +
+                    "AND CAST(strftime('%Y%m31', 'now', 'localtime') AS INTEGER)"
+    )
+    LiveData<Long> getCurrentMonthExpense();
+
+    /* ---------------------------------------------------
+     * CATEGORY DRILL-DOWN (cached by LedgerRepository)
      * --------------------------------------------------- */
 
     @Query(
             "SELECT * FROM transactions " +
-                    "WHERE category = :category AND amount < 0 " +
+                    "WHERE category_id = (SELECT id FROM categories WHERE name = :category) " +
+                    "AND amount < 0 " +
                     "ORDER BY timestamp DESC"
     )
-    LiveData<List<Transaction>> getTransactionsByCategory(String category);
+    List<Transaction> getTransactionsByCategory(String category);
 
+    // Index seek on (category_id, month_key)
     @Query(
             "SELECT * FROM transactions " +
-                    "WHERE category = :category AND amount < 0 " +
-                    "AND strftime('%Y', timestamp/1000, 'unixepoch', 'localtime') = :year " +
-                    "AND strftime('%m', timestamp/1000, 'unixepoch', 'localtime') = :month " +
+                    "WHERE category_id = (SELECT id FROM categories WHERE name = :category) " +
+                    "AND month_key = CAST(:year || :month AS INTEGER) " +
+                    "AND amount < 0 " +
                     "ORDER BY timestamp DESC"
     )
-    LiveData<List<Transaction>> getTransactionsByCategoryAndMonth(
+    List<Transaction> getTransactionsByCategoryAndMonth(
             String category, String year, String month
     );
 
@@ -98,67 +204,84 @@ public interface TransactionDao {
      * SINGLE-CATEGORY TREND (LEGACY)
      * --------------------------------------------------- */
 
+    // Range seek on (category_id, month_key) over the twelve months of :year
     @Query(
-            "SELECT strftime('%m', timestamp/1000, 'unixepoch', 'localtime') AS period, " +
+            "SELECT printf('%02d', month_key % 100) AS period, " +
                     "SUM(amount) AS total " +
                     "FROM transactions " +
-                    "WHERE category = :category AND amount < 0 " +
-                    "AND strftime('%Y', timestamp/1000, 'unixepoch', 'localtime') = :year " +
-                    "GROUP BY period " +
-                    "ORDER BY period"
+                    "WHERE category_id = (SELECT id FROM categories WHERE name = :category) " +
+                    "AND month_key BETWEEN CAST(:year AS INTEGER) * 100 + 1 " +
+                    "AND CAST(:year AS INTEGER) * 100 + 12 " +
+                    "AND amount < 0 " +
+                    "GROUP BY month_key " +
+                    "ORDER BY month_key"
     )
     LiveData<List<PeriodTotal>> getCategoryTrendsByYear(String category, String year);
 
     /* ---------------------------------------------------
      * MULTI-CATEGORY TIME-SERIES (FOR LINE CHART)
+     * Read from daily_rollup, bucketed arithmetically on day_key and
+     * grouped on category_id; names are joined onto the grouped rows.
+     * Observed through LedgerRepository, which caches them per window
      * --------------------------------------------------- */
 
     // DAILY timeline
     @Query(
-            "SELECT " +
-                    "strftime('%Y-%m-%d', timestamp/1000, 'unixepoch', 'localtime') AS period, " +
-                    "category, " +
-                    "SUM(amount) AS total " +
-                    "FROM transactions " +
-                    "WHERE amount < 0 AND timestamp >= :since " +
-                    "GROUP BY period, category " +
-                    "ORDER BY period ASC"
+            "SELECT t.period, categories.name AS category, t.total FROM (" +
+                    "SELECT printf('%04d-%02d-%02d', day_key / 10000, day_key / 100 % 100, day_key % 100) AS period, " +
+                    "category_id, " +
+                    "SUM(total) AS total " +
+                    "FROM daily_rollup " +
+                    "WHERE sign = -1 " +
+                    "AND day_key >= CAST(strftime('%Y%m%d', :since/1000, 'unixepoch', 'localtime') AS INTEGER) " +
+                    "GROUP BY day_key, category_id" +
+                    ") AS t JOIN categories ON categories.id = t.category_id " +
+                    "ORDER BY t.period ASC"
     )
-    LiveData<List<TrendPoint>> getDailyTrends(long since);
+    List<TrendPoint> getDailyTrends(long since);
 
     // MONTHLY timeline
     @Query(
-            "SELECT " +
-                    "strftime('%Y-%m', timestamp/1000, 'unixepoch', 'localtime') AS period, " +
-                    "category, " +
-                    "SUM(amount) AS total " +
-                    "FROM transactions " +
-                    "WHERE amount < 0 AND timestamp >= :since " +
-                    "GROUP BY period, category " +
-                    "ORDER BY period ASC"
+            "SELECT t.period, categories.name AS category, t.total FROM (" +
+                    "SELECT printf('%04d-%02d', day_key / 10000, day_key / 100 % 100) AS period, " +
+                    "category_id, " +
+                    "SUM(total) AS total " +
+                    "FROM daily_rollup " +
+                    "WHERE sign = -1 " +
+                    "AND day_key >= CAST(strftime('%Y%m%d', :since/1000, 'unixepoch', 'localtime') AS INTEGER) " +
+                    "GROUP BY day_key / 100, category_id" +
+                    ") AS t JOIN categories ON categories.id = t.category_id " +
+                    "ORDER BY t.period ASC"
     )
-    LiveData<List<TrendPoint>> getMonthlyTrends(long since);
+    List<TrendPoint> getMonthlyTrends(long since);
 
     // YEARLY timeline
     @Query(
-            "SELECT " +
-                    "strftime('%Y', timestamp/1000, 'unixepoch', 'localtime') AS period, " +
-                    "category, " +
-                    "SUM(amount) AS total " +
-                    "FROM transactions " +
-                    "WHERE amount < 0 AND timestamp >= :since " +
-                    "GROUP BY period, category " +
-                    "ORDER BY period ASC"
+            "SELECT t.period, categories.name AS category, t.total FROM (" +
+                    "SELECT printf('%04d', day_key / 10000) AS period, " +
+                    "category_id, " +
+                    "SUM(total) AS total " +
+                    "FROM daily_rollup " +
+                    "WHERE sign = -1 " +
+                    "AND day_key >= CAST(strftime('%Y%m%d', :since/1000, 'unixepoch', 'localtime') AS INTEGER) " +
+                    "GROUP BY day_key / 10000, category_id" +
+                    ") AS t JOIN categories ON categories.id = t.category_id " +
+                    "ORDER BY t.period ASC"
     )
-    LiveData<List<TrendPoint>> getYearlyTrends(long since);
+    List<TrendPoint> getYearlyTrends(long since);
 
-    @Query(
-            "SELECT IFNULL(SUM(amount),0) FROM transactions " +
-                    "WHERE amount < 0 AND timestamp BETWEEN :start AND :end"
-    )
-    LiveData<Double> getExpenseBetween(long start, long end);
 
 
+    /* ---------------------------------------------------
+     * CATEGORY INFERENCE (CategoryIndex)
+     * --------------------------------------------------- */
+
+    @Query(
+            "SELECT label, categories.name AS category, COUNT(*) AS count FROM transactions " +
+                    "JOIN categories ON categories.id = transactions.category_id " +
+                    "GROUP BY label, category_id"
+    )
+    List<LabelCategoryCount> getLabelCategoryCounts();
 
     /* ---------------------------------------------------
      * RESULT HOLDERS
@@ -166,17 +289,21 @@ public interface TransactionDao {
 
     class CategoryTotal {
         public String category;
-        public double total;
+        public long total;      // minor units
     }
 
     class PeriodTotal {
         public String period;
-        public double total;
+        public long total;      // minor units
     }
 
-    class TrendPoint {
-        public String period;   // 2025-01-05, 2025-01, or 2025
+    class LabelCategoryCount {
+        public String label;
         public String category;
-        public double total;
+        public int count;
+    }
+
+    // period: 2025-01-05, 2025-01, or 2025 (fields in TrendSeries.Row)
+    class TrendPoint extends TrendSeries.Row {
     }
 }
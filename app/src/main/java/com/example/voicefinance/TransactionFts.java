@@ -0,0 +1,16 @@
+package com.example.voicefinance;
+
+import androidx.room.Entity;
+import androidx.room.Fts4;
+
+/**
+ * Full-text index over transactions(label).
+ * External-content table: Room keeps it in sync with triggers on
+ * transactions, so writes need no extra code. Row ids match Transaction.id.
+ * Category names are matched through categories_fts (see CategoryFts).
+ */
+@Fts4(contentEntity = Transaction.class)
+@Entity(tableName = "transactions_fts")
+public class TransactionFts {
+    public String label;
+}
@@ -0,0 +1,87 @@
+package com.example.voicefinance;
+
+import android.graphics.Color;
+
+import com.github.mikephil.charting.components.Legend;
+import com.github.mikephil.charting.data.Entry;
+import com.github.mikephil.charting.data.LineData;
+import com.github.mikephil.charting.data.LineDataSet;
+import com.github.mikephil.charting.utils.ColorTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Trend chart data, built on a reader thread by StatisticsViewModel so the
+ * activity only hands it to the chart.
+ *
+ * LineData and its Entry objects are plain chart models with no view
+ * attached, so building them off the main thread is safe; the chart only
+ * reads them once setData() is called.
+ *
+ * Projected amounts get their own dashed line per category, in the
+ * category's colour. It starts at the last recorded period so it reads as
+ * a continuation from today, and the solid lines stop there.
+ */
+public class TrendLines {
+
+    // Ready to draw: the series and their chart data
+    public static class Chart {
+        public final TrendSeries.Result result;
+        public final LineData data;
+
+        Chart(TrendSeries.Result result, LineData data) {
+            this.result = result;
+            this.data = data;
+        }
+    }
+
+    static Chart build(TrendSeries.Result result) {
+        LineData data = new LineData();
+        int[] colors = ColorTemplate.MATERIAL_COLORS;
+        int recorded = result.firstProjected;
+
+        for (int i = 0; i < result.series.size(); i++) {
+            float[] yValues = result.series.get(i);
+            List<Entry> entries = new ArrayList<>(recorded);
+            for (int x = 0; x < recorded; x++) {
+                entries.add(new Entry(x, yValues[x]));
+            }
+
+            LineDataSet set = new LineDataSet(entries, result.categories.get(i));
+            int c = TrendSeries.OTHER.equals(result.categories.get(i))
+                    ? Color.GRAY
+                    : colors[i % colors.length];
+            style(set, c);
+            data.addDataSet(set);
+
+            float[] projected = result.projected.get(i);
+            if (projected != null && recorded > 0) {
+                data.addDataSet(projectedSet(yValues[recorded - 1], projected, recorded, c));
+            }
+        }
+        return new Chart(result, data);
+    }
+
+    // Dashed, from the last recorded value on; no legend entry of its own
+    private static LineDataSet projectedSet(float last, float[] projected, int first, int color) {
+        List<Entry> entries = new ArrayList<>(projected.length - first + 1);
+        entries.add(new Entry(first - 1, last));
+        for (int x = first; x < projected.length; x++) {
+            entries.add(new Entry(x, projected[x]));
+        }
+
+        LineDataSet set = new LineDataSet(entries, null);
+        style(set, color);
+        set.enableDashedLine(12f, 8f, 0f);
+        set.setForm(Legend.LegendForm.NONE);
+        return set;
+    }
+
+    private static void style(LineDataSet set, int color) {
+        set.setColor(color);
+        set.setCircleColor(color);
+        set.setLineWidth(2f);
+        set.setDrawValues(false);
+    }
+}
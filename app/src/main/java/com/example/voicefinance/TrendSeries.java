@@ -0,0 +1,159 @@
+package com.example.voicefinance;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Turns (period, category, total) rows into one y-value array per category,
+ * indexed like the periods list.
+ *
+ * Periods are looked up through a hash index, so a build is linear in the
+ * row count. Only the topN categories by window total get their own
+ * series; the rest are summed into one "Other" series so the chart keeps a
+ * readable number of lines however many categories the ledger has.
+ * Projected rows (recurring expenses not yet in the ledger) are kept in
+ * their own series next to the real ones, from firstProjected on, so a
+ * period never mixes recorded and projected amounts.
+ * Kept free of Android types so it can run off the main thread and be
+ * benchmarked on the JVM.
+ */
+public class TrendSeries {
+
+    public static final String OTHER = "Other";
+
+    // Base of TransactionDao.TrendPoint
+    public static class Row {
+        public String period;   // 2025-01-05, 2025-01, or 2025
+        public String category;
+        public long total;      // minor units
+    }
+
+    // Ready to render: series.get(i) and projected.get(i) belong to
+    // categories.get(i), largest first
+    public static class Result {
+        public final List<String> periods;
+        public final List<String> categories;
+        public final List<float[]> series;
+        // Null for a category with nothing projected; only [firstProjected, n) is set
+        public final List<float[]> projected;
+        // Index of the first projected period, periods.size() when none are
+        public final int firstProjected;
+
+        Result(List<String> periods, List<String> categories, List<float[]> series,
+               List<float[]> projected, int firstProjected) {
+            this.periods = periods;
+            this.categories = categories;
+            this.series = series;
+            this.projected = projected;
+            this.firstProjected = firstProjected;
+        }
+
+        public boolean isEmpty() {
+            return series.isEmpty();
+        }
+    }
+
+    public static Result build(List<String> periods, List<? extends Row> rows, int topN) {
+        return build(periods, rows, Collections.<Row>emptyList(), periods.size(), topN);
+    }
+
+    // Real rows are read up to firstProjected, projected rows from it on
+    public static Result build(List<String> periods, List<? extends Row> rows,
+                               List<? extends Row> projectedRows, int firstProjected, int topN) {
+        int n = periods.size();
+        Map<String, Integer> periodIndex = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) periodIndex.put(periods.get(i), i);
+
+        // Exact sums per category; slot n holds the window total used for ranking
+        Map<String, long[]> sums = new HashMap<>();
+        Map<String, long[]> projectedSums = new HashMap<>();
+        add(sums, rows, periodIndex, 0, firstProjected, n);
+        add(projectedSums, projectedRows, periodIndex, firstProjected, n, n);
+        // A category with only projected amounts still needs a real series to rank
+        for (Map.Entry<String, long[]> e : projectedSums.entrySet()) {
+            long[] s = sums.get(e.getKey());
+            if (s == null) {
+                s = new long[n + 1];
+                sums.put(e.getKey(), s);
+            }
+            s[n] += e.getValue()[n];
+        }
+
+        // Smallest of the current top N on top, so each category costs O(log N)
+        PriorityQueue<Map.Entry<String, long[]>> top = new PriorityQueue<>(
+                Math.max(1, topN + 1), (a, b) -> compare(a, b, n));
+        long[] other = null;
+        long[] otherProjected = null;
+        for (Map.Entry<String, long[]> e : sums.entrySet()) {
+            top.add(e);
+            if (top.size() > topN) {
+                Map.Entry<String, long[]> dropped = top.poll();
+                if (other == null) other = new long[n + 1];
+                addInto(other, dropped.getValue());
+                long[] droppedProjected = projectedSums.get(dropped.getKey());
+                if (droppedProjected != null) {
+                    if (otherProjected == null) otherProjected = new long[n + 1];
+                    addInto(otherProjected, droppedProjected);
+                }
+            }
+        }
+
+        List<Map.Entry<String, long[]>> ranked = new ArrayList<>(top);
+        Collections.sort(ranked, (a, b) -> compare(b, a, n));
+
+        List<String> categories = new ArrayList<>(ranked.size() + 1);
+        List<float[]> series = new ArrayList<>(ranked.size() + 1);
+        List<float[]> projected = new ArrayList<>(ranked.size() + 1);
+        for (Map.Entry<String, long[]> e : ranked) {
+            categories.add(e.getKey());
+            series.add(toMajor(e.getValue(), n));
+            long[] p = projectedSums.get(e.getKey());
+            projected.add(p == null ? null : toMajor(p, n));
+        }
+        if (other != null) {
+            categories.add(OTHER);
+            series.add(toMajor(other, n));
+            projected.add(otherProjected == null ? null : toMajor(otherProjected, n));
+        }
+        return new Result(periods, categories, series, projected, firstProjected);
+    }
+
+    // Sums the rows whose period index is in [from, to)
+    private static void add(Map<String, long[]> sums, List<? extends Row> rows,
+                            Map<String, Integer> periodIndex, int from, int to, int n) {
+        for (Row r : rows) {
+            Integer x = periodIndex.get(r.period);
+            if (x == null || x < from || x >= to) continue;
+
+            String category = r.category == null ? "" : r.category;
+            long[] s = sums.get(category);
+            if (s == null) {
+                s = new long[n + 1];
+                sums.put(category, s);
+            }
+            long amount = Math.abs(r.total);
+            s[x] += amount;
+            s[n] += amount;
+        }
+    }
+
+    private static void addInto(long[] into, long[] from) {
+        for (int i = 0; i < into.length; i++) into[i] += from[i];
+    }
+
+    // By window total, then name, so equal totals keep a stable order
+    private static int compare(Map.Entry<String, long[]> a, Map.Entry<String, long[]> b, int n) {
+        int c = Long.compare(a.getValue()[n], b.getValue()[n]);
+        return c != 0 ? c : b.getKey().compareTo(a.getKey());
+    }
+
+    private static float[] toMajor(long[] minor, int n) {
+        float[] out = new float[n];
+        for (int i = 0; i < n; i++) out[i] = (float) Money.toMajor(minor[i]);
+        return out;
+    }
+}
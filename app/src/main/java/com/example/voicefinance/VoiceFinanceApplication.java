@@ -0,0 +1,82 @@
+package com.example.voicefinance;
+
+import android.app.Application;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.os.Trace;
+import android.util.Log;
+import android.widget.Toast;
+
+/**
+ * Process-level setup.
+ *
+ * Opens the database on the writer thread as soon as the process starts,
+ * so the file open, migrations, Room's schema check and the first reads of
+ * the dashboard's pages happen while the first Activity is still inflating
+ * instead of in front of its first query. The writer thread is used
+ * because opening may migrate; only that is queued there, so the user's
+ * first save waits for nothing else. CategoryIndex then loads on a reader
+ * thread, and Budgets loads with the first write.
+ *
+ * Each time the app goes to the background the writer's metrics (queue
+ * depth, waits, coalesced submissions per key) are logged under
+ * "WriteMetrics".
+ */
+public class VoiceFinanceApplication extends Application {
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        StartupTrace.onAppCreate();
+        BudgetAlerts.install(this);
+        reportWriteFailures();
+
+        AppDatabase db = AppDatabase.getDatabase(this);
+        AppDatabase.databaseWriteExecutor.execute(() -> {
+            warm(db);
+            AppDatabase.databaseReadExecutor.execute(() -> loadCategoryIndex(db));
+        });
+    }
+
+    // A write that could not be saved is otherwise invisible to the user
+    private void reportWriteFailures() {
+        Handler main = new Handler(Looper.getMainLooper());
+        WriteBatcher.setFailureListener((rows, error) -> main.post(() ->
+                Toast.makeText(this, rows == 1 ? "Couldn't save an entry"
+                        : "Couldn't save " + rows + " entries", Toast.LENGTH_LONG).show()));
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        if (level == TRIM_MEMORY_UI_HIDDEN) {
+            Log.i("WriteMetrics", AppDatabase.databaseWriteExecutor.toString());
+        }
+    }
+
+    private static void warm(AppDatabase db) {
+        long start = SystemClock.uptimeMillis();
+        Trace.beginSection("warmDatabase");
+        try {
+            // Open + migrate + validate the schema
+            db.getOpenHelper().getWritableDatabase();
+
+            // Statements and pages the dashboard reads first
+            db.rollupDao().loadSummary();
+        } finally {
+            Trace.endSection();
+        }
+        StartupTrace.onDatabaseWarm(SystemClock.uptimeMillis() - start);
+    }
+
+    // Full scan of labels and categories; resolve() falls back until it is done
+    private static void loadCategoryIndex(AppDatabase db) {
+        Trace.beginSection("loadCategoryIndex");
+        try {
+            CategoryIndex.load(db);
+        } finally {
+            Trace.endSection();
+        }
+    }
+}
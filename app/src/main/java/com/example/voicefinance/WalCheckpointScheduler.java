@@ -0,0 +1,37 @@
+package com.example.voicefinance;
+
+import android.database.Cursor;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs PRAGMA wal_checkpoint(PASSIVE) on the writer thread every
+ * StorageProfile.checkpointEveryCommits commits. Passive checkpoints never
+ * wait for readers, and being queued behind writes they never delay a
+ * commit that is already waiting. SQLite's own auto-checkpoint stays on
+ * for writers that do not report here.
+ */
+public class WalCheckpointScheduler {
+
+    private static final String CHECKPOINT_KEY = "wal-checkpoint";
+
+    private static final AtomicInteger commitsSinceCheckpoint = new AtomicInteger();
+
+    // Call after each committed write batch
+    public static void noteCommit(AppDatabase db) {
+        StorageProfile profile = AppDatabase.getStorageProfile();
+        if (!profile.usesWal() || profile.checkpointEveryCommits <= 0) return;
+
+        if (commitsSinceCheckpoint.incrementAndGet() < profile.checkpointEveryCommits) return;
+        commitsSinceCheckpoint.set(0);
+
+        AppDatabase.databaseWriteExecutor.executeCoalesced(CHECKPOINT_KEY, () -> checkpoint(db));
+    }
+
+    public static void checkpoint(AppDatabase db) {
+        try (Cursor c = db.getOpenHelper().getWritableDatabase()
+                .query("PRAGMA wal_checkpoint(PASSIVE)")) {
+            c.moveToFirst();
+        }
+    }
+}
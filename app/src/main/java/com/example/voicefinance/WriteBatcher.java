@@ -0,0 +1,142 @@
+package com.example.voicefinance;
+
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Coalesces UI-originated writes.
+ *
+ * Writes are queued and drained by one coalesced task on
+ * AppDatabase.databaseWriteExecutor. Everything queued while that task is
+ * pending goes into a single SQLite transaction, so a burst of saves
+ * produces one commit and one Room invalidation instead of one per row.
+ * Order is preserved: consecutive writes of the same kind are grouped
+ * into one LedgerWriter list call.
+ *
+ * If the batch's transaction fails, its writes are retried one per
+ * transaction, so one bad write only loses itself; each write that still
+ * fails is logged and reported to the FailureListener, and draining goes
+ * on with whatever is queued next.
+ */
+public class WriteBatcher {
+
+    // Called on the writer thread for each write that could not be saved
+    public interface FailureListener {
+        void onWriteFailed(int rows, RuntimeException error);
+    }
+
+    private static final String TAG = "WriteBatcher";
+
+    private enum Kind { INSERT, UPDATE, DELETE }
+
+    private static final class PendingWrite {
+        final Kind kind;
+        final List<Transaction> transactions;
+        final Runnable onCommitted;
+
+        PendingWrite(Kind kind, List<Transaction> transactions, Runnable onCommitted) {
+            this.kind = kind;
+            this.transactions = transactions;
+            this.onCommitted = onCommitted;
+        }
+    }
+
+    private static final String FLUSH_KEY = "ledger-write-batch";
+
+    private static final ConcurrentLinkedQueue<PendingWrite> queue = new ConcurrentLinkedQueue<>();
+
+    private static volatile FailureListener failureListener;
+
+    public static void setFailureListener(FailureListener listener) {
+        failureListener = listener;
+    }
+
+    // onCommitted runs on the writer thread after the batch commits; may be null
+    public static void insert(AppDatabase db, Transaction t, Runnable onCommitted) {
+        enqueue(db, new PendingWrite(Kind.INSERT, Collections.singletonList(t), onCommitted));
+    }
+
+    // All rows land in the same transaction; onCommitted runs once
+    public static void insertAll(AppDatabase db, List<Transaction> rows, Runnable onCommitted) {
+        enqueue(db, new PendingWrite(Kind.INSERT, rows, onCommitted));
+    }
+
+    public static void update(AppDatabase db, Transaction t, Runnable onCommitted) {
+        enqueue(db, new PendingWrite(Kind.UPDATE, Collections.singletonList(t), onCommitted));
+    }
+
+    public static void delete(AppDatabase db, Transaction t, Runnable onCommitted) {
+        enqueue(db, new PendingWrite(Kind.DELETE, Collections.singletonList(t), onCommitted));
+    }
+
+    private static void enqueue(AppDatabase db, PendingWrite write) {
+        queue.add(write);
+        AppDatabase.databaseWriteExecutor.executeCoalesced(FLUSH_KEY, () -> flush(db));
+    }
+
+    private static void flush(AppDatabase db) {
+        List<PendingWrite> batch = new ArrayList<>();
+        PendingWrite next;
+        while ((next = queue.poll()) != null) {
+            batch.add(next);
+        }
+        if (batch.isEmpty()) return;
+
+        RuntimeException error = write(db, batch);
+        if (error == null) return;
+        if (batch.size() == 1) {
+            report(batch.get(0), error);
+            return;
+        }
+
+        // Rolled back as a whole: find the bad write(s) and keep the rest
+        Log.w(TAG, "Batch of " + batch.size() + " writes failed, retrying one by one", error);
+        for (PendingWrite w : batch) {
+            RuntimeException e = write(db, Collections.singletonList(w));
+            if (e != null) report(w, e);
+        }
+    }
+
+    // One transaction; returns the error it rolled back on, or null once committed
+    private static RuntimeException write(AppDatabase db, List<PendingWrite> writes) {
+        try {
+            db.runInTransaction(() -> writeRuns(db, writes));
+        } catch (RuntimeException e) {
+            LedgerWriter.rolledBack();
+            return e;
+        }
+        LedgerWriter.committed();
+        WalCheckpointScheduler.noteCommit(db);
+
+        for (PendingWrite w : writes) {
+            if (w.onCommitted != null) w.onCommitted.run();
+        }
+        return null;
+    }
+
+    private static void report(PendingWrite write, RuntimeException error) {
+        Log.e(TAG, write.kind + " of " + write.transactions.size() + " row(s) failed", error);
+        FailureListener listener = failureListener;
+        if (listener != null) listener.onWriteFailed(write.transactions.size(), error);
+    }
+
+    private static void writeRuns(AppDatabase db, List<PendingWrite> batch) {
+        int i = 0;
+        while (i < batch.size()) {
+            Kind kind = batch.get(i).kind;
+            List<Transaction> run = new ArrayList<>();
+            while (i < batch.size() && batch.get(i).kind == kind) {
+                run.addAll(batch.get(i).transactions);
+                i++;
+            }
+
+            if (kind == Kind.INSERT) LedgerWriter.insertAll(db, run);
+            else if (kind == Kind.UPDATE) LedgerWriter.updateAll(db, run);
+            else LedgerWriter.deleteAll(db, run);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.voicefinance;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class LedgerCsvTest {
+
+    private static final int ROWS = 1_000_000;
+
+    @Test
+    public void quotedFieldsRoundTrip() throws IOException {
+        StringWriter out = new StringWriter();
+        writeRecord(out, "tea, \"masala\"", "-15.00", "7", "food\nand drink");
+
+        List<String> fields = LedgerCsv.parseLine(out.toString(), LedgerCsv.newFieldBuffer());
+        assertEquals(4, fields.size());
+        assertEquals("tea, \"masala\"", fields.get(0));
+        assertEquals("-15.00", fields.get(1));
+        assertEquals("7", fields.get(2));
+        assertEquals("food and drink", fields.get(3));   // line breaks are flattened
+    }
+
+    // Streaming keeps one record alive: every line is parsed into the same field buffer
+    @Test
+    public void millionRowsReuseOneFieldBuffer() throws IOException {
+        StringWriter out = new StringWriter(256);
+        List<String> fields = LedgerCsv.newFieldBuffer();
+
+        for (int i = 0; i < ROWS; i++) {
+            String label = i % 10 == 0 ? "lunch, \"office\" " + i : "bus " + i;
+            String amount = Money.toPlainString(-(i % 977 + 1) * 100L);
+            String timestamp = Long.toString(1_700_000_000_000L + i * 60_000L);
+            String category = i % 3 == 0 ? "food" : "transport";
+
+            out.getBuffer().setLength(0);
+            writeRecord(out, label, amount, timestamp, category);
+            assertSame(fields, LedgerCsv.parseLine(out.toString(), fields));
+
+            assertEquals(4, fields.size());
+            assertEquals(label, fields.get(LedgerCsv.COL_LABEL));
+            assertEquals(amount, fields.get(LedgerCsv.COL_AMOUNT));
+            assertEquals(timestamp, fields.get(LedgerCsv.COL_TIMESTAMP));
+            assertEquals(category, fields.get(LedgerCsv.COL_CATEGORY));
+        }
+    }
+
+    private static void writeRecord(StringWriter out, String... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) out.write(',');
+            LedgerCsv.writeField(out, values[i]);
+        }
+    }
+}
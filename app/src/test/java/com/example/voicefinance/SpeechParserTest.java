@@ -0,0 +1,155 @@
+package com.example.voicefinance;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SpeechParserTest {
+
+    // ---------------- Indian scales ----------------
+
+    @Test
+    public void lakhWithDigitThousands() {
+        assertSingle("rent 1 lakh 50 thousand", "rent", -15_000_000L);
+    }
+
+    @Test
+    public void thousandWithDigitRemainder() {
+        assertSingle("laptop 2 thousand 500", "laptop", -250_000L);
+    }
+
+    @Test
+    public void croreLakhThousandInWords() {
+        assertSingle("got salary one crore twenty lakh five thousand", "salary",
+                1_200_500_000L);
+    }
+
+    @Test
+    public void lacSpelling() {
+        assertSingle("car 3 lac", "car", -30_000_000L);
+    }
+
+    @Test
+    public void hundredWithDigitRemainder() {
+        assertSingle("lunch 2 hundred 50", "lunch", -25_000L);
+    }
+
+    // ---------------- mixed digits and words ----------------
+
+    @Test
+    public void digitsThenScaleWords() {
+        assertSingle("phone 2 thousand five hundred", "phone", -250_000L);
+    }
+
+    @Test
+    public void wordsThenDigits() {
+        assertSingle("fridge two thousand 500", "fridge", -250_000L);
+    }
+
+    @Test
+    public void hundredAndFifty() {
+        assertSingle("books two hundred and fifty", "books", -25_000L);
+    }
+
+    @Test
+    public void spokenDecimals() {
+        assertSingle("tea twelve point five", "tea", -1_250L);
+    }
+
+    @Test
+    public void groupedDigitsAndCurrency() {
+        assertSingle("rent 1,250.50 taka", "rent", -125_050L);
+    }
+
+    @Test
+    public void bengaliDigits() {
+        assertSingle("bus ভাড়া ৩০ টাকা", "bus ভাড়া", -3_000L);
+    }
+
+    @Test
+    public void largerDigitsAfterScaleStartNewAmount() {
+        List<SpeechParser.Result> results = SpeechParser.parse("rent 2 thousand 5000");
+        assertEquals(2, results.size());
+        assertEquals(-200_000L, results.get(0).amount);
+        assertEquals(-500_000L, results.get(1).amount);
+    }
+
+    // ---------------- multi-item utterances ----------------
+
+    @Test
+    public void labelsAfterAmountStartNextEntry() {
+        List<SpeechParser.Result> results = SpeechParser.parse("lunch 250 bus 40");
+        assertEquals(2, results.size());
+        assertEntry(results.get(0), "lunch", -25_000L);
+        assertEntry(results.get(1), "bus", -4_000L);
+    }
+
+    @Test
+    public void separatedEntries() {
+        List<SpeechParser.Result> results = SpeechParser.parse("lunch 250 and bus 40, tea 15");
+        assertEquals(3, results.size());
+        assertEntry(results.get(0), "lunch", -25_000L);
+        assertEntry(results.get(1), "bus", -4_000L);
+        assertEntry(results.get(2), "tea", -1_500L);
+    }
+
+    @Test
+    public void labelAfterAmountAttaches() {
+        List<SpeechParser.Result> results = SpeechParser.parse("spent 250 on lunch and 40 for bus");
+        assertEquals(2, results.size());
+        assertEntry(results.get(0), "lunch", -25_000L);
+        assertEntry(results.get(1), "bus", -4_000L);
+    }
+
+    @Test
+    public void directionStaysWithItsEntry() {
+        List<SpeechParser.Result> results = SpeechParser.parse("rent 5000 salary 45 thousand");
+        assertEquals(2, results.size());
+        assertEntry(results.get(0), "rent", -500_000L);
+        assertEntry(results.get(1), "salary", 4_500_000L);
+        assertTrue(results.get(0).isExpense);
+        assertFalse(results.get(1).isExpense);
+    }
+
+    @Test
+    public void conjunctionInsideLabel() {
+        assertSingle("bread and butter 50", "bread and butter", -5_000L);
+    }
+
+    @Test
+    public void noAmount() {
+        assertTrue(SpeechParser.parse("lunch with friends").isEmpty());
+    }
+
+    // ---------------- out of range ----------------
+
+    @Test
+    public void digitRunTooLongIsNotAnAmount() {
+        assertTrue(SpeechParser.parse("fine 99999999999999999999").isEmpty());
+    }
+
+    @Test
+    public void scaleThatWouldOverflowEndsTheAmount() {
+        assertSingle("loan 90000000000000000 crore", "loan", -9_000_000_000_000_000_000L);
+    }
+
+    @Test
+    public void hundredThatWouldOverflowEndsTheAmount() {
+        assertSingle("loan 92233720368547758 hundred", "loan", -9_223_372_036_854_775_800L);
+    }
+
+    private static void assertSingle(String text, String label, long amount) {
+        List<SpeechParser.Result> results = SpeechParser.parse(text);
+        assertEquals(text, 1, results.size());
+        assertEntry(results.get(0), label, amount);
+    }
+
+    private static void assertEntry(SpeechParser.Result r, String label, long amount) {
+        assertEquals(label, r.label);
+        assertEquals(amount, r.amount);
+    }
+}
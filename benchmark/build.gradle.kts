@@ -0,0 +1,63 @@
+// JVM-only JMH benchmarks for the app's pure-Java hot paths.
+// Run with: ./gradlew :benchmark:jmh
+// Narrow the run with e.g. -Pjmh.includes=HistoryBenchmark
+plugins {
+    `java-library`
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_1_8
+    targetCompatibility = JavaVersion.VERSION_1_8
+}
+
+// The app sources carry non-ASCII literals (e.g. "·", "৳")
+tasks.withType<JavaCompile>().configureEach {
+    options.encoding = "UTF-8"
+}
+
+// Compile the Android-free classes straight from the app sources,
+// so the benchmarks always measure the shipped code.
+sourceSets {
+    named("main") {
+        java {
+            setSrcDirs(listOf("../app/src/main/java"))
+            include(
+                "com/example/voicefinance/Category.java",
+                "com/example/voicefinance/CurrencyUtils.java",
+                "com/example/voicefinance/Converters.java",
+                "com/example/voicefinance/DateKeys.java",
+                "com/example/voicefinance/HistoryFilterType.java",
+                "com/example/voicefinance/HistoryListItem.java",
+                "com/example/voicefinance/HistoryUtils.java",
+                "com/example/voicefinance/LedgerCsv.java",
+                "com/example/voicefinance/Money.java",
+                "com/example/voicefinance/RecurrenceFrequency.java",
+                "com/example/voicefinance/SpeechParser.java",
+                "com/example/voicefinance/TimeBuckets.java",
+                "com/example/voicefinance/Transaction.java",
+                "com/example/voicefinance/TransactionType.java",
+                "com/example/voicefinance/TrendSeries.java"
+            )
+        }
+    }
+}
+
+dependencies {
+    // Room entity annotations on Transaction; not needed at run time
+    compileOnly(libs.room.common)
+    compileOnly(libs.jetbrains.annotations)
+
+    // Runs the app's SQL shapes against real SQLite on the JVM
+    jmh(libs.sqlite.jdbc)
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh.get())
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    jvmArgsAppend.add("-Xmx4g")
+    resultFormat.set("JSON")
+    project.findProperty("jmh.includes")?.let { includes.add(it.toString()) }
+}
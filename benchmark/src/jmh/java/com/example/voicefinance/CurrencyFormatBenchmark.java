@@ -0,0 +1,63 @@
+package com.example.voicefinance;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.NumberFormat;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+// One currency format per bound row, as the adapters do
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CurrencyFormatBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private long[] amounts;
+    private NumberFormat baseline;
+
+    @Setup
+    public void setUp() {
+        amounts = LedgerFixtures.amounts(size);
+
+        // Same pattern and symbols as CurrencyUtils' fallback
+        DecimalFormatSymbols symbols = new DecimalFormatSymbols(Locale.getDefault());
+        symbols.setCurrencySymbol("৳");
+        baseline = new DecimalFormat("¤#,##0.00", symbols);
+    }
+
+    // DecimalFormat on every row, the pre-cache behaviour minus construction
+    @Benchmark
+    public void formatPerRow(Blackhole bh) {
+        for (long amount : amounts) {
+            bh.consume(baseline.format(Money.toMajor(amount)));
+        }
+    }
+
+    @Benchmark
+    public void formatFastPath(Blackhole bh) {
+        for (long amount : amounts) {
+            bh.consume(CurrencyUtils.formatMinor(amount));
+        }
+    }
+
+    // Scrolling back and forth over one screen of rows: LRU hits
+    @Benchmark
+    public void formatRebind(Blackhole bh) {
+        for (int i = 0; i < amounts.length; i++) {
+            bh.consume(CurrencyUtils.formatSignedMinor(amounts[i % 24]));
+        }
+    }
+}
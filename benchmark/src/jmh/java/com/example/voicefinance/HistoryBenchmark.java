@@ -0,0 +1,117 @@
+package com.example.voicefinance;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// HistoryUtils paged grouping, period windows and week labels over the whole ledger
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class HistoryBenchmark {
+
+    // HistoryPager.PAGE_SIZE
+    private static final int PAGE_SIZE = 100;
+
+    // Header totals come from SQL in the app; RollupQueryBenchmark measures those
+    private static final HistoryUtils.HeaderTotals NO_TOTALS = (start, end) -> 0;
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private List<Transaction> transactions;
+    private int day;
+    private int month;
+    private int year;
+    private int week;
+
+    @Setup
+    public void setUp() {
+        transactions = LedgerFixtures.transactions(size);
+
+        // Windows on a period that exists in the middle of the data
+        Calendar cal = Calendar.getInstance();
+        cal.setTimeInMillis(transactions.get(transactions.size() / 2).timestamp);
+        day = cal.get(Calendar.DAY_OF_MONTH);
+        month = cal.get(Calendar.MONTH);
+        year = cal.get(Calendar.YEAR);
+        week = HistoryUtils.getISOWeekNumber(cal);
+    }
+
+    @Benchmark
+    public List<HistoryListItem> appendHistoryItemsDay() {
+        return appendAllPages(HistoryFilterType.DAY);
+    }
+
+    @Benchmark
+    public List<HistoryListItem> appendHistoryItemsWeek() {
+        return appendAllPages(HistoryFilterType.WEEK);
+    }
+
+    @Benchmark
+    public List<HistoryListItem> appendHistoryItemsMonth() {
+        return appendAllPages(HistoryFilterType.MONTH);
+    }
+
+    @Benchmark
+    public List<HistoryListItem> appendHistoryItemsYear() {
+        return appendAllPages(HistoryFilterType.YEAR);
+    }
+
+    // Constant time, whatever the ledger size
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public long[] dayWindow() {
+        return HistoryUtils.dayWindow(day, month, year);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public long[] weekWindow() {
+        return HistoryUtils.weekWindow(week, year);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public long[] monthWindow() {
+        return HistoryUtils.monthWindow(month, year);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public long[] yearWindow() {
+        return HistoryUtils.yearWindow(year);
+    }
+
+    @Benchmark
+    public void weekLabels(Blackhole bh) {
+        TimeBuckets buckets = TimeBuckets.get();
+        for (Transaction t : transactions) {
+            int bucket = buckets.bucketOf(t.timestamp, HistoryFilterType.WEEK);
+            bh.consume(buckets.label(bucket, HistoryFilterType.WEEK));
+        }
+    }
+
+    // Pages the newest-first ledger in the way HistoryPager does
+    private List<HistoryListItem> appendAllPages(HistoryFilterType filterType) {
+        List<HistoryListItem> out = new ArrayList<>(transactions.size() + 16);
+        int lastBucket = TimeBuckets.NONE;
+        for (int from = 0; from < transactions.size(); from += PAGE_SIZE) {
+            List<Transaction> page =
+                    transactions.subList(from, Math.min(from + PAGE_SIZE, transactions.size()));
+            lastBucket = HistoryUtils.appendHistoryItems(out, page, filterType, lastBucket, NO_TOTALS);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.voicefinance;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic ledgers for the benchmarks: rows spread over the
+ * ten years before a fixed "now", newest first like the DAO returns them.
+ */
+final class LedgerFixtures {
+
+    static final long NOW = 1767225600000L;            // 2026-01-01T00:00:00Z
+    static final long SPAN = 10L * 365 * 24 * 60 * 60 * 1000;
+
+    static final String[] LABELS = {
+            "lunch", "bus fare", "rent", "salary", "groceries", "coffee",
+            "electricity bill", "mobile recharge", "rickshaw", "dinner",
+            "medicine", "internet", "freelance payment", "tea", "books"
+    };
+
+    private LedgerFixtures() {}
+
+    static List<Transaction> transactions(int size) {
+        Random random = new Random(42);
+        List<Transaction> list = new ArrayList<>(size);
+        long step = SPAN / Math.max(1, size);
+
+        for (int i = 0; i < size; i++) {
+            String label = LABELS[random.nextInt(LABELS.length)];
+            boolean income = label.equals("salary") || label.startsWith("freelance");
+            long amount = random.nextInt(500_000) + 100;
+            long timestamp = NOW - i * step - random.nextInt(60_000);
+
+            Transaction t = new Transaction(label, income ? amount : -amount, timestamp, label,
+                    income ? TransactionType.INCOME : TransactionType.EXPENSE);
+            t.id = size - i;
+            list.add(t);
+        }
+        return list;
+    }
+
+    // Minor units
+    static long[] amounts(int size) {
+        Random random = new Random(7);
+        long[] amounts = new long[size];
+        for (int i = 0; i < size; i++) {
+            amounts[i] = random.nextInt(100_000_000) - 50_000_000;
+        }
+        return amounts;
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.voicefinance;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chart and summary queries as the DAO used to run them (strftime over every
+ * transaction row) against the daily_rollup versions. The rollup side should
+ * stay flat as the ledger grows; the scan side grows with it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RollupQueryBenchmark {
+
+    private static final long THIRTY_DAYS = 30L * 24 * 60 * 60 * 1000;
+    private static final int INSERT_BATCH = 10_000;
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private SqliteLedger ledger;
+    private long since;
+    private String year;
+    private String month;
+
+    private PreparedStatement pieScan;
+    private PreparedStatement pieRollup;
+    private PreparedStatement dailyTrendScan;
+    private PreparedStatement dailyTrendRollup;
+    private PreparedStatement monthExpenseScan;
+    private PreparedStatement monthExpenseRollup;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        ledger = new SqliteLedger();
+        ledger.applyProfile("WAL", "NORMAL", 64L * 1024 * 1024, 8 * 1024);
+
+        List<Transaction> all = LedgerFixtures.transactions(size);
+        for (int from = 0; from < all.size(); from += INSERT_BATCH) {
+            ledger.insertAll(all.subList(from, Math.min(all.size(), from + INSERT_BATCH)));
+        }
+
+        since = LedgerFixtures.NOW - THIRTY_DAYS;
+        int monthKey = all.get(0).monthKey;
+        year = String.valueOf(monthKey / 100);
+        month = String.format("%02d", monthKey % 100);
+
+        pieScan = ledger.connection.prepareStatement(
+                "SELECT categories.name AS category, SUM(amount) AS total FROM transactions " +
+                        "JOIN categories ON categories.id = transactions.category_id " +
+                        "WHERE amount < 0 AND timestamp >= ? GROUP BY category_id");
+        pieRollup = ledger.connection.prepareStatement(
+                "SELECT categories.name AS category, t.total FROM (" +
+                        "SELECT category_id, SUM(total) AS total FROM daily_rollup WHERE sign = -1 " +
+                        "AND day_key >= CAST(strftime('%Y%m%d', ?/1000, 'unixepoch', 'localtime') AS INTEGER) " +
+                        "GROUP BY category_id) AS t JOIN categories ON categories.id = t.category_id");
+
+        dailyTrendScan = ledger.connection.prepareStatement(
+                "SELECT strftime('%Y-%m-%d', timestamp/1000, 'unixepoch', 'localtime') AS period, " +
+                        "categories.name AS category, SUM(amount) AS total FROM transactions " +
+                        "JOIN categories ON categories.id = transactions.category_id " +
+                        "WHERE amount < 0 AND timestamp >= ? " +
+                        "GROUP BY period, category_id ORDER BY period ASC");
+        dailyTrendRollup = ledger.connection.prepareStatement(
+                "SELECT t.period, categories.name AS category, t.total FROM (" +
+                        "SELECT printf('%04d-%02d-%02d', day_key / 10000, day_key / 100 % 100, day_key % 100) AS period, " +
+                        "category_id, SUM(total) AS total FROM daily_rollup WHERE sign = -1 " +
+                        "AND day_key >= CAST(strftime('%Y%m%d', ?/1000, 'unixepoch', 'localtime') AS INTEGER) " +
+                        "GROUP BY day_key, category_id) AS t JOIN categories ON categories.id = t.category_id " +
+                        "ORDER BY t.period ASC");
+
+        monthExpenseScan = ledger.connection.prepareStatement(
+                "SELECT IFNULL(SUM(amount),0) FROM transactions WHERE amount < 0 " +
+                        "AND strftime('%Y', timestamp/1000, 'unixepoch', 'localtime') = ? " +
+                        "AND strftime('%m', timestamp/1000, 'unixepoch', 'localtime') = ?");
+        monthExpenseRollup = ledger.connection.prepareStatement(
+                "SELECT IFNULL(SUM(total),0) FROM daily_rollup WHERE sign = -1 " +
+                        "AND day_key BETWEEN CAST(? || ? || '01' AS INTEGER) " +
+                        "AND CAST(? || ? || '31' AS INTEGER)");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        ledger.close();
+    }
+
+    @Benchmark
+    public void pieScan(Blackhole bh) throws Exception {
+        pieScan.setLong(1, since);
+        drain(pieScan, bh);
+    }
+
+    @Benchmark
+    public void pieRollup(Blackhole bh) throws Exception {
+        pieRollup.setLong(1, since);
+        drain(pieRollup, bh);
+    }
+
+    @Benchmark
+    public void dailyTrendScan(Blackhole bh) throws Exception {
+        dailyTrendScan.setLong(1, since);
+        drain(dailyTrendScan, bh);
+    }
+
+    @Benchmark
+    public void dailyTrendRollup(Blackhole bh) throws Exception {
+        dailyTrendRollup.setLong(1, since);
+        drain(dailyTrendRollup, bh);
+    }
+
+    @Benchmark
+    public void monthExpenseScan(Blackhole bh) throws Exception {
+        monthExpenseScan.setString(1, year);
+        monthExpenseScan.setString(2, month);
+        drain(monthExpenseScan, bh);
+    }
+
+    @Benchmark
+    public void monthExpenseRollup(Blackhole bh) throws Exception {
+        monthExpenseRollup.setString(1, year);
+        monthExpenseRollup.setString(2, month);
+        monthExpenseRollup.setString(3, year);
+        monthExpenseRollup.setString(4, month);
+        drain(monthExpenseRollup, bh);
+    }
+
+    static void drain(PreparedStatement statement, Blackhole bh) throws Exception {
+        try (ResultSet rs = statement.executeQuery()) {
+            int columns = rs.getMetaData().getColumnCount();
+            while (rs.next()) {
+                for (int i = 1; i <= columns; i++) bh.consume(rs.getObject(i));
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.voicefinance;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Voice phrase parsing over a corpus of recognised utterances; regexPerCall
+// is the previous single-entry parser, kept as the baseline
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SpeechParserBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private String[] phrases;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<String> corpus = loadCorpus();
+        phrases = new String[size];
+        for (int i = 0; i < size; i++) {
+            phrases[i] = corpus.get(i % corpus.size());
+        }
+    }
+
+    @Benchmark
+    public void parse(Blackhole bh) {
+        for (String phrase : phrases) {
+            bh.consume(SpeechParser.parse(phrase));
+        }
+    }
+
+    @Benchmark
+    public void regexPerCall(Blackhole bh) {
+        for (String phrase : phrases) {
+            String text = phrase.toLowerCase(Locale.getDefault());
+            boolean isExpense = !(text.contains("income") || text.contains("got"));
+
+            Matcher m = Pattern.compile("(\\d+(\\.\\d+)?)").matcher(text);
+            if (!m.find()) continue;
+
+            long amount = Money.parse(m.group(1));
+            String label = text.replace(m.group(1), "").replaceAll("[^a-z ]", "").trim();
+            bh.consume(label);
+            bh.consume(isExpense ? -amount : amount);
+        }
+    }
+
+    static List<String> loadCorpus() throws IOException {
+        List<String> corpus = new ArrayList<>();
+        try (InputStream is = SpeechParserBenchmark.class.getResourceAsStream("/voice_phrases.txt");
+             BufferedReader reader = new BufferedReader(
+                     new InputStreamReader(is, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.trim().isEmpty() && !line.startsWith("#")) corpus.add(line);
+            }
+        }
+        return corpus;
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.voicefinance;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * transaction_database's tables recreated on a temp file through sqlite-jdbc,
+ * so the DAO's SQL can be timed against real SQLite on the JVM. Keep the DDL
+ * in step with AppDatabase's migrations.
+ */
+final class SqliteLedger implements AutoCloseable {
+
+    // DailyRollup.SIGN_*; DailyRollup itself needs androidx.annotation
+    static final int SIGN_INCOME = 1;
+    static final int SIGN_EXPENSE = -1;
+
+    final File file;
+    final Connection connection;
+
+    // Categories.idFor's cache
+    private final Map<String, Integer> categoryIds = new HashMap<>();
+
+    SqliteLedger() throws IOException, SQLException {
+        file = File.createTempFile("ledger", ".db");
+        connection = DriverManager.getConnection("jdbc:sqlite:" + file.getAbsolutePath());
+        try (Statement s = connection.createStatement()) {
+            s.execute("CREATE TABLE categories (" +
+                    "id INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, name TEXT NOT NULL)");
+            s.execute("CREATE UNIQUE INDEX index_categories_name ON categories (name)");
+            s.execute("CREATE TABLE transactions (" +
+                    "id INTEGER PRIMARY KEY AUTOINCREMENT NOT NULL, label TEXT, " +
+                    "amount INTEGER NOT NULL, timestamp INTEGER NOT NULL, " +
+                    "day_key INTEGER NOT NULL DEFAULT 0, month_key INTEGER NOT NULL DEFAULT 0, " +
+                    "year_key INTEGER NOT NULL DEFAULT 0, category_id INTEGER NOT NULL, " +
+                    "created_at INTEGER NOT NULL, updated_at INTEGER, type TEXT, " +
+                    "FOREIGN KEY(category_id) REFERENCES categories(id))");
+            s.execute("CREATE INDEX index_transactions_timestamp ON transactions (timestamp)");
+            s.execute("CREATE INDEX index_transactions_category_id_month_key " +
+                    "ON transactions (category_id, month_key)");
+            s.execute("CREATE TABLE daily_rollup (" +
+                    "day_key INTEGER NOT NULL, category_id INTEGER NOT NULL, sign INTEGER NOT NULL, " +
+                    "total INTEGER NOT NULL, count INTEGER NOT NULL, " +
+                    "PRIMARY KEY(day_key, category_id, sign))");
+        }
+    }
+
+    // Connection-level pragmas as StorageProfile.callback() applies them
+    void applyProfile(String journalMode, String synchronous, long mmapSizeBytes,
+                      int cacheSizeKb) throws SQLException {
+        try (Statement s = connection.createStatement()) {
+            s.execute("PRAGMA journal_mode = " + journalMode);
+            s.execute("PRAGMA synchronous = " + synchronous);
+            s.execute("PRAGMA cache_size = -" + cacheSizeKb);
+            s.execute("PRAGMA mmap_size = " + mmapSizeBytes);
+        }
+    }
+
+    // One transaction for the batch, as LedgerWriter.insertAll does
+    void insertAll(List<Transaction> transactions) throws SQLException {
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO transactions (label, amount, timestamp, day_key, month_key, year_key, " +
+                        "category_id, created_at, type) VALUES (?,?,?,?,?,?,?,?,?)");
+             PreparedStatement ensure = connection.prepareStatement(
+                     "INSERT OR IGNORE INTO daily_rollup (day_key, category_id, sign, total, count) " +
+                             "VALUES (?,?,?,0,0)");
+             PreparedStatement delta = connection.prepareStatement(
+                     "UPDATE daily_rollup SET total = total + ?, count = count + 1 " +
+                             "WHERE day_key = ? AND category_id = ? AND sign = ?")) {
+            for (Transaction t : transactions) {
+                int sign = t.amount < 0 ? SIGN_EXPENSE : SIGN_INCOME;
+                int categoryId = categoryId(t.category == null ? "" : t.category);
+
+                insert.setString(1, t.label);
+                insert.setLong(2, t.amount);
+                insert.setLong(3, t.timestamp);
+                insert.setInt(4, t.dayKey);
+                insert.setInt(5, t.monthKey);
+                insert.setInt(6, t.yearKey);
+                insert.setInt(7, categoryId);
+                insert.setLong(8, t.createdAt);
+                insert.setString(9, t.type.name());
+                insert.executeUpdate();
+
+                ensure.setInt(1, t.dayKey);
+                ensure.setInt(2, categoryId);
+                ensure.setInt(3, sign);
+                ensure.executeUpdate();
+
+                delta.setLong(1, t.amount);
+                delta.setInt(2, t.dayKey);
+                delta.setInt(3, categoryId);
+                delta.setInt(4, sign);
+                delta.executeUpdate();
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private int categoryId(String name) throws SQLException {
+        Integer id = categoryIds.get(name);
+        if (id != null) return id;
+
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT OR IGNORE INTO categories (name) VALUES (?)");
+             PreparedStatement select = connection.prepareStatement(
+                     "SELECT id FROM categories WHERE name = ?")) {
+            insert.setString(1, name);
+            insert.executeUpdate();
+            select.setString(1, name);
+            try (ResultSet rs = select.executeQuery()) {
+                rs.next();
+                id = rs.getInt(1);
+            }
+        }
+        categoryIds.put(name, id);
+        return id;
+    }
+
+    void checkpoint() throws SQLException {
+        try (Statement s = connection.createStatement()) {
+            s.execute("PRAGMA wal_checkpoint(PASSIVE)");
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        connection.close();
+        new File(file.getPath() + "-wal").delete();
+        new File(file.getPath() + "-shm").delete();
+        file.delete();
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.voicefinance;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Insert and aggregate latency under each StorageProfile. The pragma values
+ * mirror the enum; StorageProfile itself depends on Room's JournalMode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class StorageProfileBenchmark {
+
+    @Param({"BALANCED", "DURABLE", "LEGACY"})
+    public String profile;
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    // Rows per commit: one voice entry, or one LedgerImporter batch
+    @Param({"1", "1000"})
+    public int batch;
+
+    private SqliteLedger ledger;
+    private int checkpointEvery;
+    private int commits;
+    private List<List<Transaction>> batches;
+    private int next;
+    private PreparedStatement aggregate;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        ledger = new SqliteLedger();
+        switch (profile) {
+            case "BALANCED":
+                checkpointEvery = 64;
+                ledger.applyProfile("WAL", "NORMAL", 64L * 1024 * 1024, 8 * 1024);
+                break;
+            case "DURABLE":
+                checkpointEvery = 16;
+                ledger.applyProfile("WAL", "FULL", 0, 2 * 1024);
+                break;
+            default:
+                checkpointEvery = 0;
+                ledger.applyProfile("TRUNCATE", "FULL", 0, 2 * 1024);
+                break;
+        }
+
+        List<Transaction> seed = LedgerFixtures.transactions(size);
+        for (int from = 0; from < seed.size(); from += 10_000) {
+            ledger.insertAll(seed.subList(from, Math.min(seed.size(), from + 10_000)));
+        }
+
+        // Pre-built so the measured loop only pays for SQLite
+        batches = new ArrayList<>();
+        List<Transaction> extra = LedgerFixtures.transactions(batch * 64);
+        for (int from = 0; from < extra.size(); from += batch) {
+            batches.add(extra.subList(from, from + batch));
+        }
+
+        aggregate = ledger.connection.prepareStatement(
+                "SELECT categories.name, t.total FROM (" +
+                        "SELECT category_id, SUM(total) AS total FROM daily_rollup WHERE sign = -1 " +
+                        "AND day_key >= ? GROUP BY category_id) AS t " +
+                        "JOIN categories ON categories.id = t.category_id");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        ledger.close();
+    }
+
+    @Benchmark
+    public void insertBatch() throws Exception {
+        ledger.insertAll(batches.get(next++ % batches.size()));
+        // WalCheckpointScheduler's passive checkpoint between batches
+        if (checkpointEvery > 0 && ++commits % checkpointEvery == 0) {
+            ledger.checkpoint();
+        }
+    }
+
+    @Benchmark
+    public void aggregateLastMonth(Blackhole bh) throws Exception {
+        aggregate.setInt(1, DateKeys.dayKey(LedgerFixtures.NOW - 30L * 24 * 60 * 60 * 1000));
+        RollupQueryBenchmark.drain(aggregate, bh);
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.voicefinance;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Line-chart series assembly for the 30-day view, with one category per 30
+// rows so the category count grows with the ledger. indexOfBaseline is the
+// previous List.indexOf assembly with no category limit.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TrendSeriesBenchmark {
+
+    private static final int DAYS = 30;
+    private static final int TOP_N = 6;     // StatisticsActivity.TOP_TREND_CATEGORIES
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private List<String> periods;
+    private List<TrendSeries.Row> rows;
+
+    @Setup
+    public void setUp() {
+        periods = new ArrayList<>(DAYS);
+        for (int d = 1; d <= DAYS; d++) {
+            periods.add(String.format(Locale.US, "2025-01-%02d", d));
+        }
+
+        rows = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            TrendSeries.Row r = new TrendSeries.Row();
+            r.period = periods.get(i % DAYS);
+            r.category = "category " + (i / DAYS);
+            r.total = -(i % 977 + 1) * 100L;
+            rows.add(r);
+        }
+    }
+
+    @Benchmark
+    public TrendSeries.Result build() {
+        return TrendSeries.build(periods, rows, TOP_N);
+    }
+
+    @Benchmark
+    public Map<String, float[]> indexOfBaseline() {
+        Map<String, float[]> dataMap = new LinkedHashMap<>();
+        for (TrendSeries.Row r : rows) {
+            int x = periods.indexOf(r.period);
+            if (x == -1) continue;
+
+            float[] series = dataMap.get(r.category);
+            if (series == null) {
+                series = new float[periods.size()];
+                dataMap.put(r.category, series);
+            }
+            series[x] = (float) Money.toMajor(Math.abs(r.total));
+        }
+        return dataMap;
+    }
+}